@@ -0,0 +1,52 @@
+package Benchmark;
+
+import sample.Model.Game;
+
+import java.util.Random;
+
+// How the cost of the model's per-move work grows with the board: checking a move, playing it
+// (captures and the score estimate included) and scoring the final position. With chains the
+// first two should stay flat from 9x9 to 37x37; only scoring walks the whole board.
+// java Benchmark.BoardScalingBenchmark [games per size]
+public class BoardScalingBenchmark {
+
+    private static final int[] SIZES = {9, 13, 19, 25, 37};
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+        for (int round = 0; round < 3; round++) {           // the first rounds warm up the JIT
+            System.out.println("round " + (round + 1));
+            for (int size : SIZES) {
+                Random random = new Random(round);
+                long checkNanos = 0, checks = 0, moveNanos = 0, moves = 0, scoreNanos = 0;
+
+                for (int g = 0; g < games; g++) {
+                    Game game = new Game(size);
+                    for (int attempt = 0; attempt < size * size * 3; attempt++) {
+                        int row = random.nextInt(size), col = random.nextInt(size);
+
+                        long start = System.nanoTime();
+                        boolean valid = game.isValidMove(row, col);
+                        checkNanos += System.nanoTime() - start;
+                        checks++;
+                        if (!valid)
+                            continue;
+
+                        start = System.nanoTime();
+                        game.playerMove(row, col);
+                        moveNanos += System.nanoTime() - start;
+                        game.nextTurn();
+                        moves++;
+                    }
+                    long start = System.nanoTime();
+                    game.getBoard().scoreBoard();
+                    scoreNanos += System.nanoTime() - start;
+                }
+                System.out.printf("  %2dx%-2d  isValidMove %6.2f us  playerMove %6.2f us  scoreBoard %8.1f us%n",
+                        size, size, checkNanos / 1e3 / checks, moveNanos / 1e3 / moves, scoreNanos / 1e3 / games);
+            }
+        }
+    }
+
+}
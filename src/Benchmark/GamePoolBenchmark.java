@@ -0,0 +1,48 @@
+package Benchmark;
+
+import sample.Model.Game;
+import sample.Model.GamePool;
+
+import java.lang.management.ManagementFactory;
+
+// Bytes allocated per game with and without the pool, measured on the calling thread.
+// java Benchmark.GamePoolBenchmark [size] [games]
+public class GamePoolBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 19;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        GamePool pool = new GamePool(4);
+        pool.prefill(size, 1);
+
+        for (int warmup = 0; warmup < 3; warmup++) {
+            measure("new Game, fill, discard", games, () -> fill(new Game(size)));
+            measure("pooled,   fill, release", games, () -> {
+                Game game = pool.acquire(size);
+                fill(game);
+                pool.release(game);
+            });
+        }
+    }
+
+    private static void fill(Game game) {            // a full board of stones, without the cost of move validation
+        int size = game.getBoardSize();
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                game.getBoard().placeStoneOnBoard(i, j, game.getCurrentPlayer().getColor());
+    }
+
+    private static void measure(String name, int games, Runnable game) {
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++)
+            game.run();
+        long nanos = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+        System.out.printf("%s: %8.1f bytes/game, %6.2f us/game%n", name, (double) bytes / games, nanos / 1e3 / games);
+    }
+
+}
@@ -0,0 +1,55 @@
+package Benchmark;
+
+import sample.Model.Game;
+import sample.Model.Journal.FsyncPolicy;
+import sample.Model.Journal.MoveJournal;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+// java Benchmark.JournalBenchmark [threads] [movesPerThread] [EVERY_BATCH|INTERVAL|NEVER]
+public class JournalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int movesPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        FsyncPolicy policy = args.length > 2 ? FsyncPolicy.valueOf(args[2]) : FsyncPolicy.EVERY_BATCH;
+
+        Path file = Files.createTempFile("betago-bench", ".journal");
+        try (MoveJournal journal = new MoveJournal(file, policy, 10, 64)) {
+            Thread[] workers = new Thread[threads];
+            long start = System.nanoTime();
+
+            for (int t = 0; t < threads; t++) {
+                final int id = t;
+                workers[t] = new Thread(() -> {
+                    Game game = new Game();
+                    game.setJournal(journal, id);
+                    Random random = new Random(id);
+                    int misses = 0;
+                    for (int i = 0; i < movesPerThread; ) {        // random legal moves, restarting when the board fills up
+                        int row = random.nextInt(game.getBoardSize()), col = random.nextInt(game.getBoardSize());
+                        if (game.isValidMove(row, col)) {
+                            game.playerMove(row, col);
+                            game.nextTurn();
+                            i += 2;
+                            misses = 0;
+                        } else if (++misses > 50) {
+                            game.restartGame();
+                            i++;
+                        }
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) worker.join();
+            journal.flush();
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d threads, %s: %.0f records/s, %d bytes%n", threads, policy, threads * movesPerThread / seconds, Files.size(file));
+        }
+        Files.delete(file);
+    }
+
+}
@@ -0,0 +1,49 @@
+package Benchmark;
+
+import sample.Model.Board;
+import sample.Model.Game;
+
+import java.util.Random;
+
+// Cost of keeping the score estimate current (included in playerMove) against rescoring a copy
+// of the board with scoreBoard() after every move.
+// java Benchmark.ScoreEstimatorBenchmark [size] [games]
+public class ScoreEstimatorBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 19;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        for (int round = 0; round < 3; round++) {
+            long movesNanos = 0, rescoreNanos = 0, moves = 0;
+            Random random = new Random(round);
+
+            for (int g = 0; g < games; g++) {
+                Game game = new Game(size);
+                for (int attempt = 0; attempt < size * size * 2; attempt++) {
+                    int row = random.nextInt(size), col = random.nextInt(size);
+                    if (!game.isValidMove(row, col))
+                        continue;
+
+                    long start = System.nanoTime();
+                    game.playerMove(row, col);
+                    movesNanos += System.nanoTime() - start;
+                    game.nextTurn();
+                    moves++;
+
+                    Board copy = new Board(size);
+                    for (int i = 0; i < size; i++)
+                        for (int j = 0; j < size; j++)
+                            if (game.getBoard().getBoard()[i][j] != null)
+                                copy.placeStoneOnBoard(i, j, game.getBoard().getBoard()[i][j].getColor());
+                    start = System.nanoTime();
+                    copy.scoreBoard();
+                    rescoreNanos += System.nanoTime() - start;
+                }
+            }
+            System.out.printf("%dx%d: playerMove incl. estimate %.1f us/move, full scoreBoard %.1f us/move%n",
+                    size, size, movesNanos / 1e3 / moves, rescoreNanos / 1e3 / moves);
+        }
+    }
+
+}
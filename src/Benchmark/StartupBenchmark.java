@@ -0,0 +1,43 @@
+package Benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Time from JVM start to the first rendered frame of sample.Main, over several fresh JVMs.
+// Needs a display and the same classpath (JavaFX included) that Main runs with.
+// java Benchmark.StartupBenchmark [runs]
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Long> times = new ArrayList<>();
+
+        for (int run = 0; run < runs; run++) {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                                 "-Dbetago.startupBenchmark=true", "sample.Main")
+                    .redirectErrorStream(true).start();
+
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = out.readLine()) != null)
+                    if (line.startsWith("first frame after "))
+                        times.add(Long.parseLong(line.replaceAll("\\D", "")));
+            }
+            process.waitFor();
+        }
+
+        if (times.isEmpty()) {
+            System.err.println("sample.Main never reported a frame; is there a display?");
+            System.exit(1);
+        }
+        Collections.sort(times);
+        System.out.printf("time to first frame over %d runs: min %d ms, median %d ms, max %d ms%n",
+                times.size(), times.get(0), times.get(times.size() / 2), times.get(times.size() - 1));
+    }
+
+}
@@ -0,0 +1,40 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Model.Analysis.AnalysisSnapshot;
+import sample.Model.Analysis.Analyzer;
+import sample.Model.Game;
+import sample.Model.GameSnapshot;
+
+class AnalyzerTest {
+
+    @Test
+    void testOwnershipOfWalledOffCorner() throws Exception {
+        Game game = new Game();
+        for (int i = 0; i < 9; i++) {               // black wall on column 2, white wall on column 4
+            game.playerMove(i, 2);
+            game.nextTurn();
+            game.playerMove(i, 4);
+            game.nextTurn();
+        }
+        GameSnapshot position = game.snapshot();
+
+        try (Analyzer analyzer = new Analyzer(2)) {
+            analyzer.analyze(position);
+            AnalysisSnapshot analysis = null;
+            long deadline = System.currentTimeMillis() + 10_000;
+            while ((analysis == null || analysis.getPlayouts() < 256) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                analysis = analyzer.getSnapshot();
+            }
+
+            assertNotNull(analysis);
+            assertSame(position, analysis.getPosition());
+            assertTrue(analysis.getOwnership(0, 0) > 0.5);      // black's side
+            assertTrue(analysis.getOwnership(0, 8) < 0);        // white's side
+            assertEquals(0, analysis.getVisits(4, 2));          // occupied
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Simulation.BatchSimulator;
+
+class BatchSimulatorTest {
+
+    @Test
+    void testGamesDontDependOnThreadCount() throws InterruptedException {
+        for (String policy : new String[]{"random", "capture"}) {
+            BatchSimulator simulator = new BatchSimulator(7, policy, 3);
+            BatchSimulator.Result one = simulator.run(40, 1), three = simulator.run(40, 3);
+            assertEquals(40, three.games);
+            assertTrue(one.moves > 40 * 2);
+            assertEquals(one.moves, three.moves, policy);      // every game is seeded by its number, whichever thread plays it
+        }
+    }
+
+    @Test
+    void testRejectsUnknownPolicy() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(9, "minimax", 1));
+    }
+
+}
@@ -168,4 +168,31 @@ class BoardTest {
         assertEquals(board.getBoard()[size - 1][size - 1], null);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testCountLiberties() {
+        Board board = new Board(9);
+        board.placeStoneOnBoard(1, 0, Color.BLACK);
+        board.placeStoneOnBoard(0, 1, Color.BLACK);
+        board.placeStoneOnBoard(2, 0, Color.WHITE);
+        board.placeStoneOnBoard(1, 1, Color.WHITE);
+        board.placeStoneOnBoard(0, 2, Color.WHITE);
+        board.placeStoneOnBoard(4, 4, Color.BLACK);     // an L, whose two ends share the liberty at 5,5
+        board.placeStoneOnBoard(4, 5, Color.BLACK);
+        board.placeStoneOnBoard(5, 4, Color.BLACK);
+
+        int[] liberties = new int[81];
+        java.util.Arrays.fill(liberties, -1);
+        board.countLiberties(liberties);
+        assertEquals(1, liberties[1 * 9 + 0]);
+        assertEquals(1, liberties[0 * 9 + 1]);
+        assertEquals(2, liberties[2 * 9 + 0]);
+        assertEquals(2, liberties[1 * 9 + 1]);
+        assertEquals(2, liberties[0 * 9 + 2]);
+        assertEquals(7, liberties[4 * 9 + 4]);
+        assertEquals(7, liberties[4 * 9 + 5]);
+        assertEquals(7, liberties[5 * 9 + 4]);
+        assertEquals(0, liberties[0]);                  // empty
+        assertEquals(0, liberties[8 * 9 + 8]);
+    }
+
+}
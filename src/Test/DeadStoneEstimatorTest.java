@@ -0,0 +1,90 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import javafx.scene.paint.Color;
+import sample.Model.Analysis.DeadStoneEstimator;
+import sample.Model.Game;
+
+class DeadStoneEstimatorTest {
+
+    private static void place(Game game, int row, int col, Color color) {
+        if (game.getCurrentPlayer().getColor() != color)
+            game.nextTurn();
+        game.playerMove(row, col);
+    }
+
+    private static Game walledOffGame(int wall) {   // black wall on column wall, white wall on the next one
+        Game game = new Game();
+        for (int i = 0; i < 9; i++) {
+            place(game, i, wall, Color.BLACK);
+            place(game, i, wall + 1, Color.WHITE);
+        }
+        return game;
+    }
+
+    private static Game invadedGame() {             // one invader in atari on each side
+        Game game = walledOffGame(4);
+        place(game, 1, 1, Color.BLACK);
+        place(game, 2, 0, Color.BLACK);
+        place(game, 3, 1, Color.BLACK);
+        place(game, 2, 1, Color.WHITE);
+        place(game, 5, 7, Color.WHITE);
+        place(game, 7, 7, Color.WHITE);
+        place(game, 6, 8, Color.WHITE);
+        place(game, 6, 7, Color.BLACK);
+        game.nextTurn();
+        return game;
+    }
+
+    @Test
+    void testInvadersAreDead() {
+        DeadStoneEstimator estimator = new DeadStoneEstimator(400, 10_000, 2);
+        boolean[] dead = estimator.deadStones(invadedGame().snapshot());
+        assertTrue(dead[2 * 9 + 1]);
+        assertTrue(dead[6 * 9 + 7]);
+        for (int i = 0; i < 9; i++) {
+            assertFalse(dead[i * 9 + 4]);
+            assertFalse(dead[i * 9 + 5]);
+        }
+    }
+
+    @Test
+    void testContestedStoneIsLeftAlive() {
+        Game game = walledOffGame(2);               // a lone stone in a wide area; random playouts lose it only a little more often than not
+        place(game, 4, 6, Color.BLACK);
+        game.nextTurn();
+        DeadStoneEstimator estimator = new DeadStoneEstimator(400, 10_000, 2);
+        float ownership = estimator.ownership(game.snapshot())[4 * 9 + 6];
+        assertTrue(ownership < 0 && ownership > -0.2);
+        assertFalse(estimator.deadStones(game.snapshot())[4 * 9 + 6]);
+    }
+
+    @Test
+    void testSamePlayoutsGiveSameOwnership() {
+        Game game = invadedGame();
+        float[] one = new DeadStoneEstimator(200, 10_000, 1).ownership(game.snapshot());
+        float[] two = new DeadStoneEstimator(200, 10_000, 3).ownership(game.snapshot());
+        assertArrayEquals(one, two);
+    }
+
+    @Test
+    void testDeadStonesAreScoredAsPrisoners() {
+        Game plain = invadedGame();
+        plain.gameOver();
+        assertEquals(0, plain.getPlayers()[0].getScore());      // the invaders make both sides neutral
+        assertEquals(0, plain.getPlayers()[1].getScore());
+
+        Game game = invadedGame();
+        game.setDeadStones(new DeadStoneEstimator(400, 10_000, 2)::deadStones);
+        game.passTurn();
+        game.passTurn();
+        assertNull(game.getBoard().getBoard()[2][1]);
+        assertNull(game.getBoard().getBoard()[6][7]);
+        assertEquals(33 + 1, game.getPlayers()[0].getScore());   // territory plus the prisoner
+        assertEquals(24 + 1, game.getPlayers()[1].getScore());
+        assertEquals(33, game.getScoreEstimator().getBlackTerritory());
+        assertEquals(24, game.getScoreEstimator().getWhiteTerritory());
+    }
+
+}
@@ -0,0 +1,280 @@
+package Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.scene.paint.Color;
+import sample.Model.Board;
+import sample.Model.Game;
+import sample.Model.Stone;
+
+// Plays seeded random games through ReferenceEngine and Game side by side and compares them
+// before every move: turn, stones, legality of every point (both the per-point check and the
+// per-turn map), the ko point, the liberties of every group, the score estimate and captures,
+// and the final score once both players pass. The first divergence is shrunk to a short move
+// sequence that still diverges the same way and written out as a JUnit test.
+//
+//   java Test.DifferentialFuzzer [games: 100000] [threads] [seed: 1] [test dir: src/Test]
+public class DifferentialFuzzer {
+
+    static final int PASS = -1;
+    private static final int[] SIZES = {3, 4, 5, 5, 7, 7, 9};      // small boards reach captures, ko and the edges sooner
+
+    public static void main(String[] args) throws Exception {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        Path testDir = Paths.get(args.length > 3 ? args[3] : "src/Test");
+
+        AtomicLong nextGame = new AtomicLong(), played = new AtomicLong(), moves = new AtomicLong();
+        AtomicBoolean found = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                long g;
+                while (!found.get() && (g = nextGame.getAndIncrement()) < games) {
+                    long gameSeed = mix(seed, g);
+                    int size = SIZES[(int) Long.remainderUnsigned(gameSeed, SIZES.length)];
+                    int[] game = generate(gameSeed, size);
+                    Divergence divergence = firstDivergence(size, game);
+                    played.incrementAndGet();
+                    moves.addAndGet(game.length);
+                    if (divergence != null && found.compareAndSet(false, true))
+                        report(testDir, gameSeed, size, game, divergence);
+                }
+            });
+        }
+        pool.shutdown();
+        while (!pool.awaitTermination(5, TimeUnit.SECONDS))
+            progress(played.get(), moves.get(), start);
+        progress(played.get(), moves.get(), start);
+        if (!found.get())
+            System.out.println("no divergence");
+        System.exit(found.get() ? 1 : 0);
+    }
+
+    private static void progress(long games, long moves, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d moves in %.0f s: %.0f games/s, %.0f moves/s%n", games, moves, seconds, games / seconds, moves / seconds);
+    }
+
+    private static void report(Path testDir, long seed, int size, int[] game, Divergence divergence) {
+        int[] shrunk = shrink(size, game, divergence.kind);
+        Divergence minimal = firstDivergence(size, shrunk);
+        System.out.println("divergence in game " + Long.toHexString(seed) + " (" + size + "x" + size + ", " + game.length + " moves): " + divergence);
+        System.out.println("shrunk to " + shrunk.length + " moves: " + minimal);
+        try {
+            System.out.println("wrote " + writeRegressionTest(testDir, seed, size, shrunk, minimal));
+        } catch (IOException e) {
+            System.err.println("could not write the regression test: " + e);
+        }
+    }
+
+    static long mix(long seed, long game) {                 // spreads consecutive game numbers over unrelated seeds
+        long z = seed + game * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static int[] generate(long seed, int size) {            // a random game the reference engine considers legal
+        Random random = new Random(seed);
+        ReferenceEngine reference = new ReferenceEngine(size);
+        int[] moves = new int[size * size * 3];
+        int n = 0;
+
+        while (n < moves.length && !reference.isOver()) {
+            int move = PASS;
+            if (random.nextInt(40) != 0) {
+                for (int attempt = 0; attempt < size * size && move == PASS; attempt++) {
+                    int p = random.nextInt(size * size);
+                    if (reference.isLegal(p))
+                        move = p;
+                }
+            }
+            if (move == PASS) reference.pass();
+            else              reference.play(move);
+            moves[n++] = move;
+        }
+        return Arrays.copyOf(moves, n);
+    }
+
+    static final class Divergence {
+
+        final int move;
+        final String kind;
+        final String detail;
+
+        Divergence(int move, String kind, String detail) {
+            this.move = move;
+            this.kind = kind;
+            this.detail = detail;
+        }
+
+        @Override
+        public String toString() {
+            return "before move " + move + ", " + kind + ": " + detail;
+        }
+    }
+
+    static Divergence firstDivergence(int size, int[] moves) {     // null if Game agrees with the reference all the way
+        ReferenceEngine reference = new ReferenceEngine(size);
+        Game game = new Game(size);
+
+        for (int i = 0; i < moves.length; i++) {
+            Divergence divergence = compare(reference, game, i);
+            if (divergence != null)
+                return divergence;
+
+            int p = moves[i];
+            if (p == PASS) {
+                reference.pass();
+                game.passTurn();
+                if (reference.isOver())
+                    return compareScores(reference, game, i + 1);
+            } else if (reference.isLegal(p)) {                  // shrinking can leave moves that are no longer legal; both engines skip them
+                reference.play(p);
+                game.playerMove(p / size, p % size);
+                game.nextTurn();
+
+                int[] expected = reference.lastCaptured().clone();
+                int[] actual = new int[game.getBoard().getNumCaptured()];
+                for (int n = 0; n < actual.length; n++)
+                    actual[n] = game.getBoard().getCaptured(n);
+                Arrays.sort(expected);
+                Arrays.sort(actual);
+                if (!Arrays.equals(expected, actual))
+                    return new Divergence(i + 1, "captures", "expected " + Arrays.toString(expected) + " but got " + Arrays.toString(actual));
+            }
+        }
+        Divergence divergence = compare(reference, game, moves.length);
+        if (divergence != null)
+            return divergence;
+        game.gameOver();
+        return compareScores(reference, game, moves.length);
+    }
+
+    private static Divergence compare(ReferenceEngine reference, Game game, int move) {
+        int size = reference.size;
+        Color toMove = reference.toMove() == ReferenceEngine.BLACK ? Color.BLACK : Color.WHITE;
+        if (game.getCurrentPlayer().getColor() != toMove)
+            return new Divergence(move, "turn", "expected " + toMove);
+
+        Stone[][] stones = game.getBoard().getBoard();
+        for (int p = 0; p < size * size; p++) {
+            Stone stone = stones[p / size][p % size];
+            int cell = stone == null ? ReferenceEngine.EMPTY : stone.getColor() == Color.BLACK ? ReferenceEngine.BLACK : ReferenceEngine.WHITE;
+            if (cell != reference.get(p))
+                return new Divergence(move, "board", "point " + p + " expected " + reference.get(p) + " but was " + cell);
+        }
+
+        for (int p = 0; p < size * size; p++)                   // per point first, while the turn's map isn't built
+            if (game.isValidMove(p / size, p % size) != reference.isLegal(p))
+                return new Divergence(move, "legality", "isValidMove at point " + p + " should be " + reference.isLegal(p));
+        for (int p = 0; p < size * size; p++)
+            if (game.isLegalMove(p / size, p % size) != reference.isLegal(p))
+                return new Divergence(move, "legality", "isLegalMove at point " + p + " should be " + reference.isLegal(p));
+
+        int ko = -1;
+        for (int p = 0; p < size * size; p++)
+            if (reference.isKo(p))
+                ko = p;
+        int actualKo = game.getKoPoint() == Board.NONE ? -1 : game.getKoPoint();
+        if (actualKo != ko)
+            return new Divergence(move, "ko", "expected point " + ko + " but got " + actualKo);
+
+        int[] liberties = new int[size * size];
+        game.getBoard().countLiberties(liberties);
+        for (int p = 0; p < size * size; p++) {
+            if (reference.get(p) == ReferenceEngine.EMPTY)
+                continue;
+            int expected = reference.liberties(p);
+            int actual = Stone.getNumLiberties(stones[p / size][p % size], new HashSet<>());
+            if (actual != expected)
+                return new Divergence(move, "liberties", "Stone.getNumLiberties at point " + p + " expected " + expected + " but got " + actual);
+            if (liberties[p] != expected)
+                return new Divergence(move, "liberties", "Board.countLiberties at point " + p + " expected " + expected + " but got " + liberties[p]);
+        }
+
+        if (game.getScoreEstimator().getBlackTerritory() != reference.territory(ReferenceEngine.BLACK)
+            || game.getScoreEstimator().getWhiteTerritory() != reference.territory(ReferenceEngine.WHITE))
+            return new Divergence(move, "territory", "expected " + reference.territory(ReferenceEngine.BLACK) + "/" + reference.territory(ReferenceEngine.WHITE)
+                                  + " but estimated " + game.getScoreEstimator().getBlackTerritory() + "/" + game.getScoreEstimator().getWhiteTerritory());
+
+        if (game.getPlayers()[0].getScore() != reference.captures(ReferenceEngine.BLACK)
+            || game.getPlayers()[1].getScore() != reference.captures(ReferenceEngine.WHITE))
+            return new Divergence(move, "captures", "expected " + reference.captures(ReferenceEngine.BLACK) + "/" + reference.captures(ReferenceEngine.WHITE)
+                                  + " but scored " + game.getPlayers()[0].getScore() + "/" + game.getPlayers()[1].getScore());
+        return null;
+    }
+
+    private static Divergence compareScores(ReferenceEngine reference, Game game, int move) {
+        int black = reference.captures(ReferenceEngine.BLACK) + reference.territory(ReferenceEngine.BLACK);
+        int white = reference.captures(ReferenceEngine.WHITE) + reference.territory(ReferenceEngine.WHITE);
+        if (game.getPlayers()[0].getScore() != black || game.getPlayers()[1].getScore() != white)
+            return new Divergence(move, "score", "expected " + black + "/" + white + " but got "
+                                  + game.getPlayers()[0].getScore() + "/" + game.getPlayers()[1].getScore());
+        return null;
+    }
+
+    static int[] shrink(int size, int[] moves, String kind) {      // drop ever smaller runs of moves while the same kind of divergence remains
+        Divergence divergence = firstDivergence(size, moves);
+        int[] best = Arrays.copyOf(moves, Math.min(moves.length, divergence.move));
+
+        for (int chunk = Math.max(1, best.length / 2); chunk >= 1; chunk /= 2) {
+            boolean shrunk;
+            do {
+                shrunk = false;
+                for (int from = 0; from + chunk <= best.length; ) {
+                    int[] candidate = new int[best.length - chunk];
+                    System.arraycopy(best, 0, candidate, 0, from);
+                    System.arraycopy(best, from + chunk, candidate, from, best.length - from - chunk);
+                    Divergence d = firstDivergence(size, candidate);
+                    if (d != null && d.kind.equals(kind)) {
+                        best = Arrays.copyOf(candidate, Math.min(candidate.length, d.move));
+                        shrunk = true;
+                    } else {
+                        from += chunk;
+                    }
+                }
+            } while (shrunk);
+        }
+        return best;
+    }
+
+    static Path writeRegressionTest(Path dir, long seed, int size, int[] moves, Divergence divergence) throws IOException {
+        String name = "FuzzRegression" + Long.toHexString(seed).toUpperCase() + "Test";
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < moves.length; i++)
+            list.append(i == 0 ? "" : ", ").append(moves[i]);
+
+        String source = "package Test;\n\n"
+                + "import static org.junit.jupiter.api.Assertions.*;\n"
+                + "import org.junit.jupiter.api.Test;\n\n"
+                + "// Found by DifferentialFuzzer in game " + Long.toHexString(seed) + ", shrunk from a longer game. It diverged\n"
+                + "// " + divergence + "\n"
+                + "class " + name + " {\n\n"
+                + "    @Test\n"
+                + "    void testMatchesReference() {\n"
+                + "        int[] moves = {" + list + "};     // row * size + col, -1 to pass\n"
+                + "        assertNull(DifferentialFuzzer.firstDivergence(" + size + ", moves));\n"
+                + "    }\n\n"
+                + "}\n";
+        Files.createDirectories(dir);
+        Path file = dir.resolve(name + ".java");
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}
@@ -0,0 +1,18 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+class DifferentialFuzzerTest {
+
+    @Test
+    void testSeededGamesMatchReference() {
+        for (long g = 0; g < 200; g++) {
+            long seed = DifferentialFuzzer.mix(42, g);
+            int size = 3 + (int) (g % 5);
+            int[] moves = DifferentialFuzzer.generate(seed, size);
+            assertNull(DifferentialFuzzer.firstDivergence(size, moves), "game " + Long.toHexString(seed));
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+// Found by DifferentialFuzzer in game f893a2eefb32555e, shrunk from a longer game. It diverged
+// before move 5, liberties: Stone.getNumLiberties at point 10 expected 5 but got 6
+class FuzzRegressionF893A2EEFB32555ETest {
+
+    @Test
+    void testMatchesReference() {
+        int[] moves = {13, 0, 14, 2, 10};     // row * size + col, -1 to pass
+        assertNull(DifferentialFuzzer.firstDivergence(4, moves));
+    }
+
+}
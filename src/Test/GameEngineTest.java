@@ -0,0 +1,38 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Model.Game;
+import sample.Model.GameEngine;
+import sample.Model.GameSnapshot;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class GameEngineTest {
+
+    @Test
+    void testQueuedMovesAreAppliedInOrder() throws Exception {
+        LinkedBlockingQueue<GameEngine.State> states = new LinkedBlockingQueue<>();
+        GameEngine engine = new GameEngine(new Game(), Runnable::run, states::add);
+        assertEquals(9, engine.currentState().getBoardSize());
+
+        for (int i = 0; i < 9; i++)
+            engine.playMove(i, i);                      // queued faster than the engine runs them
+        engine.playMove(0, 0);                          // occupied, ignored
+        engine.passTurn();
+
+        GameEngine.State last = null;
+        while (last == null || last.getSnapshot().getMoveNumber() < 10)
+            last = states.poll(5, TimeUnit.SECONDS);
+        engine.shutdown();
+
+        GameSnapshot snapshot = last.getSnapshot();
+        for (int i = 0; i < 9; i++)
+            assertEquals(i % 2 == 0 ? GameSnapshot.BLACK : GameSnapshot.WHITE, snapshot.get(i, i));
+        assertEquals(false, last.isLegalMove(4, 4));
+        assertEquals(true, last.isLegalMove(0, 1));
+        assertEquals(false, last.isWhiteToMove());      // nine moves and a pass by white
+    }
+
+}
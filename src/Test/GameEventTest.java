@@ -0,0 +1,79 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Model.Game;
+import sample.Model.Event.GameEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+class GameEventTest {
+
+    static class Recorder implements Flow.Subscriber<GameEvent> {
+        List<GameEvent> events = new ArrayList<>();
+        Flow.Subscription subscription;
+        boolean completed;
+
+        public void onSubscribe(Flow.Subscription subscription) { this.subscription = subscription; }
+        public void onNext(GameEvent event) { events.add(event); }
+        public void onError(Throwable throwable) { fail(throwable); }
+        public void onComplete() { completed = true; }
+    }
+
+    @Test
+    void testMoveCapturePassAndGameOver() {
+        Game game = new Game();
+        Recorder recorder = new Recorder();
+        game.publishEvents(Runnable::run, 16).subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        game.playerMove(1, 0);
+        game.nextTurn();
+        game.playerMove(0, 0);
+        game.nextTurn();
+        game.playerMove(0, 1);          // captures the white stone
+        game.nextTurn();
+        game.playerMove(0, 0);          // illegal (suicide), no event
+        game.passTurn();
+        game.passTurn();
+
+        List<GameEvent.Type> types = new ArrayList<>();
+        for (GameEvent e : recorder.events) types.add(e.getType());
+        assertEquals(List.of(GameEvent.Type.MOVE, GameEvent.Type.MOVE, GameEvent.Type.MOVE, GameEvent.Type.CAPTURE,
+                             GameEvent.Type.PASS, GameEvent.Type.PASS, GameEvent.Type.GAME_OVER), types);
+        assertEquals(3, recorder.events.get(3).getMoveNumber());
+        assertEquals(1, recorder.events.get(3).getCount());
+        assertNotNull(recorder.events.get(6).getSnapshot());
+    }
+
+    @Test
+    void testSlowSubscriberIsConflated() {
+        Game game = new Game();
+        Recorder slow = new Recorder();
+        Recorder fast = new Recorder();
+        game.publishEvents(Runnable::run, 4).subscribe(slow);
+        game.getEvents().subscribe(fast);
+        fast.subscription.request(Long.MAX_VALUE);
+
+        for (int i = 0; i < 6; i++) {   // no requests from the slow subscriber yet
+            game.playerMove(i, i);
+            game.nextTurn();
+        }
+        assertEquals(6, fast.events.size());
+        assertEquals(0, slow.events.size());
+
+        slow.subscription.request(Long.MAX_VALUE);
+        assertEquals(GameEvent.Type.POSITION, slow.events.get(0).getType());
+        assertEquals(5, slow.events.get(0).getMoveNumber());            // overflowed on the 5th move
+        assertEquals(GameEvent.Type.MOVE, slow.events.get(1).getType());
+        assertEquals(6, slow.events.get(1).getMoveNumber());
+        assertEquals(2, slow.events.size());
+
+        game.getEvents().close();
+        assertTrue(slow.completed);
+        assertTrue(fast.completed);
+    }
+
+}
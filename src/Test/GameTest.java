@@ -1,11 +1,18 @@
 package Test;
 
 import static org.junit.jupiter.api.Assertions.*;
+import sample.Model.Board;
 import sample.Model.Game;
+import sample.Model.GamePool;
+import sample.Model.GameSnapshot;
 import sample.Model.Player;
 import org.junit.jupiter.api.Test;
 import javafx.scene.paint.Color;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 class GameTest {
 
     @Test
@@ -42,6 +49,26 @@ class GameTest {
         assertEquals(false, game.isValidMove(8, 8)); // ko rule
     }
 
+    @Test
+    void testKoPointSurvivesRestore() {     // same position as testKO
+        Game game = new Game();
+
+        game.playerMove(8, 6);
+        game.playerMove(7, 7);
+        game.playerMove(8, 8);
+        game.nextTurn();
+        game.playerMove(7, 8);
+        game.playerMove(8, 7);
+        game.nextTurn();
+        assertEquals(8 * 9 + 8, game.getKoPoint());
+
+        Game restored = new Game();
+        restored.restore(game.snapshot());
+        assertEquals(8 * 9 + 8, restored.getKoPoint());
+        restored.restartGame();
+        assertEquals(Board.NONE, restored.getKoPoint());
+    }
+
     @Test
     void testRepeatMove() {                 // test ko rule
         Game game = new Game();
@@ -69,4 +96,160 @@ class GameTest {
         game.playerMove(4, 4);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testPooledGameIsReset() {
+        GamePool pool = new GamePool(2);
+        Game game = pool.acquire(13);
+        assertEquals(13, game.getBoardSize());
+
+        game.playerMove(0, 1);
+        game.nextTurn();
+        game.playerMove(0, 0);
+        game.nextTurn();
+        game.playerMove(1, 0);                  // captures
+        pool.release(game);
+        assertEquals(1, pool.idle(13));
+
+        Game reused = pool.acquire(13);
+        assertSame(game, reused);
+        assertEquals(0, pool.idle(13));
+        assertEquals(reused.getCurrentPlayer(), reused.getPlayers()[0]);
+        assertEquals(0, reused.getPlayers()[0].getScore());
+        for (int i = 0; i < 13; i++)
+            for (int j = 0; j < 13; j++)
+                assertNull(reused.getBoard().getBoard()[i][j]);
+        assertEquals(true, reused.isValidMove(0, 0));
+    }
+
+    @Test
+    void testPooledGameDropsItsSubscribers() {
+        GamePool pool = new GamePool(1);
+        Game game = pool.acquire(9);
+        GameEventTest.Recorder spectator = new GameEventTest.Recorder();
+        game.publishEvents(Runnable::run, 16).subscribe(spectator);
+        spectator.subscription.request(Long.MAX_VALUE);
+        game.setUndoEnabled(true);
+        game.setPublishing(true);
+        game.playerMove(4, 4);
+        int seen = spectator.events.size();
+
+        pool.release(game);
+        Game reused = pool.acquire(9);
+        assertSame(game, reused);
+        reused.playerMove(3, 3);
+        reused.nextTurn();
+        assertEquals(seen, spectator.events.size());    // nothing from the restart or the next borrower's moves
+        assertTrue(spectator.completed);
+        assertFalse(reused.canUndo());
+        assertNull(reused.getPublishedPosition());
+    }
+
+    @Test
+    void testLegalMoveMapFollowsTurns() {
+        Game game = new Game();
+
+        game.playerMove(8, 6);
+        game.playerMove(7, 7);
+        game.playerMove(8, 8);
+        game.nextTurn();
+        game.playerMove(7, 8);
+        assertEquals(true, game.isLegalMove(8, 7));
+        assertEquals(false, game.isLegalMove(8, 8));    // occupied
+        assertEquals(false, game.isLegalMove(9, 0));    // off the board
+        game.playerMove(8, 7);
+        game.nextTurn();
+        assertEquals(false, game.isLegalMove(8, 8));    // ko rule, from a freshly built map
+        assertEquals(false, game.isValidMove(8, 8));
+        game.passTurn();
+        assertEquals(true, game.isLegalMove(0, 0));
+        game.restartGame();
+        assertEquals(true, game.isLegalMove(8, 8));
+    }
+
+    @Test
+    void testUndoRedoMatchesPlayedPositions() {
+        Random random = new Random(5);
+        Game game = new Game();
+        game.setUndoEnabled(true);
+        List<GameSnapshot> positions = new ArrayList<>();
+        positions.add(game.snapshot());
+        while (positions.size() < 150) {
+            int p = random.nextInt(81);
+            if (random.nextInt(20) == 0 && !game.snapshot().isLastTurnPassed()) {
+                game.passTurn();
+            } else if (game.isValidMove(p / 9, p % 9)) {
+                game.playerMove(p / 9, p % 9);
+                game.nextTurn();
+            } else {
+                continue;
+            }
+            positions.add(game.snapshot());
+        }
+
+        for (int n = positions.size() - 1; n > 0; n--) {
+            assertTrue(game.undo());
+            assertSamePosition(positions.get(n - 1), game);
+        }
+        assertFalse(game.undo());
+        for (int n = 1; n < positions.size(); n++) {
+            assertTrue(game.redo());
+            assertSamePosition(positions.get(n), game);
+        }
+        assertFalse(game.redo());
+
+        for (int n = 0; n < 10; n++)
+            game.undo();
+        game.playerMove(0, 0);
+        assertFalse(game.canRedo());                    // a new move drops the undone ones
+    }
+
+    @Test
+    void testUndoScoringPassPutsDeadStonesBack() {
+        Game game = new Game();
+        game.setUndoEnabled(true);
+        game.setDeadStones(position -> {
+            boolean[] dead = new boolean[81];
+            dead[4 * 9 + 4] = true;
+            return dead;
+        });
+        game.playerMove(4, 4);
+        game.nextTurn();
+        GameSnapshot beforePasses = game.snapshot();
+        game.passTurn();
+        game.passTurn();
+        assertNull(game.getBoard().getBoard()[4][4]);
+        assertEquals(1, game.getPlayers()[1].getScore());
+
+        assertTrue(game.undo());
+        assertTrue(game.undo());
+        assertSamePosition(beforePasses, game);
+        assertTrue(game.redo());
+        assertTrue(game.redo());
+        assertNull(game.getBoard().getBoard()[4][4]);
+        assertEquals(1, game.getPlayers()[1].getScore());       // an empty board is nobody's territory
+    }
+
+    private void assertSamePosition(GameSnapshot expected, Game game) {
+        GameSnapshot actual = game.snapshot();
+        for (int i = 0; i < 9; i++)
+            for (int j = 0; j < 9; j++)
+                assertEquals(expected.get(i, j), actual.get(i, j));
+        assertEquals(expected.getTurn(), actual.getTurn());
+        assertEquals(expected.getScore(0), actual.getScore(0));
+        assertEquals(expected.getScore(1), actual.getScore(1));
+        assertEquals(expected.getKoCaptured(), actual.getKoCaptured());
+        assertEquals(expected.getKoRow(), actual.getKoRow());
+        assertEquals(expected.getKoCol(), actual.getKoCol());
+        assertEquals(expected.isLastTurnPassed(), actual.isLastTurnPassed());
+        assertEquals(expected.getMoveNumber(), actual.getMoveNumber());
+
+        Game fresh = new Game();                        // the incremental territory count matches a full one
+        fresh.restore(expected);
+        assertEquals(fresh.getScoreEstimator().getBlackTerritory(), game.getScoreEstimator().getBlackTerritory());
+        assertEquals(fresh.getScoreEstimator().getWhiteTerritory(), game.getScoreEstimator().getWhiteTerritory());
+        for (int i = 0; i < 9; i++)
+            for (int j = 0; j < 9; j++)
+                assertEquals(fresh.isLegalMove(i, j), game.isLegalMove(i, j));
+    }
+
+}
@@ -0,0 +1,67 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Model.Game;
+import sample.Model.GameSnapshot;
+import sample.Model.GameTimeline;
+import sample.Model.Record.GameRecord;
+import sample.Model.Record.SgfReader;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class GameTimelineTest {
+
+    @Test
+    void testSeekMatchesReplay() {
+        Random random = new Random(7);
+        Game game = new Game(9);
+        GameRecord record = new GameRecord(9);
+        List<GameSnapshot> positions = new ArrayList<>();
+        positions.add(game.snapshot());
+
+        while (record.length() < 120) {
+            int row = random.nextInt(9), col = random.nextInt(9);
+            if (random.nextInt(20) == 0) {
+                record.addPass(game.getCurrentPlayer().getColor());
+                game.passTurn();
+            } else if (game.isValidMove(row, col)) {
+                record.addMove(game.getCurrentPlayer().getColor(), row, col);
+                game.playerMove(row, col);
+                game.nextTurn();
+            } else {
+                continue;
+            }
+            positions.add(game.snapshot());
+        }
+
+        GameTimeline timeline = GameTimeline.build(record);
+        assertEquals(120, timeline.length());
+        for (int move : new int[]{0, 1, 15, 16, 17, 64, 119, 120, 5, 0}) {     // forwards and backwards
+            GameSnapshot expected = positions.get(move), actual = timeline.positionAt(move);
+            for (int i = 0; i < 9; i++)
+                for (int j = 0; j < 9; j++)
+                    assertEquals(expected.get(i, j), actual.get(i, j), "move " + move);
+            assertEquals(expected.getScore(0), actual.getScore(0));
+            assertEquals(expected.getScore(1), actual.getScore(1));
+            assertEquals(expected.getTurn(), actual.getTurn());
+        }
+    }
+
+    @Test
+    void testSgfMainLine() throws Exception {
+        GameRecord record = new SgfReader(new StringReader("(;GM[1]SZ[9]RE[B+R]C[a (comment)];B[ee];W[ce](;B[dd])(;B[aa]))")).read();
+        assertEquals(9, record.size());
+        assertEquals(3, record.length());
+        assertEquals(3, record.getRow(2));
+        assertEquals(3, record.getCol(2));
+        assertEquals(javafx.scene.paint.Color.BLACK, record.getWinner());
+
+        GameTimeline timeline = GameTimeline.build(record);
+        assertEquals(GameSnapshot.WHITE, timeline.positionAt(3).get(4, 2));
+    }
+
+}
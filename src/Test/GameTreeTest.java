@@ -0,0 +1,120 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Model.Board;
+import sample.Model.Game;
+import sample.Model.GameSnapshot;
+import sample.Model.GameTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class GameTreeTest {
+
+    @Test
+    void testVariationsMatchReplay() {
+        Random random = new Random(11);
+        GameTree tree = new GameTree(9, 8);
+        List<GameTree.Node> nodes = new ArrayList<>();
+
+        for (int line = 0; line < 12; line++) {             // a main line, then variations branching off earlier nodes
+            if (line > 0)
+                tree.goTo(nodes.get(random.nextInt(nodes.size())));
+            for (int moves = 0; moves < 40; moves++) {
+                int move = random.nextInt(30) == 0 ? Board.PASS : random.nextInt(81);
+                if (tree.isLegal(move))
+                    nodes.add(tree.play(move));
+            }
+        }
+        assertTrue(tree.cachedPositions() <= 8);
+
+        for (int i = 0; i < 100; i++) {
+            GameTree.Node node = nodes.get(random.nextInt(nodes.size()));
+            assertSamePosition(replay(node), tree.getPosition(node));
+        }
+        assertTrue(tree.cachedPositions() <= 8);
+    }
+
+    @Test
+    void testBranchingAndPruning() {
+        GameTree tree = new GameTree(9, 16);
+        GameTree.Node a = tree.play(40), b = tree.play(41);
+        tree.back();
+        GameTree.Node c = tree.play(31);
+        tree.play(32);
+        assertEquals(5, tree.size());
+        assertEquals(2, a.getChildren().size());
+        assertSame(b, a.getChildren().get(0));
+
+        tree.goTo(a);
+        assertSame(c, tree.play(31));                       // follows the existing variation
+        assertEquals(5, tree.size());
+        tree.promote(c);
+        tree.goTo(a);
+        tree.forward();
+        assertSame(c, tree.getCurrent());
+
+        tree.forward();
+        tree.prune(c);                                      // the current node goes with it
+        assertSame(a, tree.getCurrent());
+        assertEquals(3, tree.size());
+        assertEquals(1, a.getChildren().size());
+        assertThrows(IllegalArgumentException.class, () -> tree.goTo(c));
+
+        assertThrows(IllegalArgumentException.class, () -> tree.play(41 - 1));     // occupied
+        assertEquals(GameSnapshot.BLACK, tree.getPosition().get(4, 4));
+    }
+
+    @Test
+    void testNothingFollowsTwoPasses() {
+        GameTree tree = new GameTree(9, 4);
+        tree.play(40);
+        tree.play(Board.PASS);
+        GameTree.Node end = tree.play(Board.PASS);
+        assertTrue(tree.isOver(end));
+        int[] scores = {tree.getPosition().getScore(0), tree.getPosition().getScore(1)};
+
+        assertFalse(tree.isLegal(Board.PASS));
+        assertFalse(tree.isLegal(41));
+        assertThrows(IllegalArgumentException.class, () -> tree.play(Board.PASS));     // would score the game again
+        assertThrows(IllegalArgumentException.class, () -> tree.play(41));
+        assertEquals(4, tree.size());
+        assertSamePosition(replay(end), tree.getPosition(end));
+        assertEquals(scores[0], tree.getPosition().getScore(0));
+        assertEquals(scores[1], tree.getPosition().getScore(1));
+
+        tree.back();                                        // a variation before the end is fine
+        assertFalse(tree.isOver(tree.getCurrent()));
+        tree.play(41);
+        assertEquals(5, tree.size());
+    }
+
+    private GameSnapshot replay(GameTree.Node node) {
+        List<Integer> moves = new ArrayList<>();
+        for (GameTree.Node n = node; n.getParent() != null; n = n.getParent())
+            moves.add(0, n.getMove());
+        Game game = new Game(9);
+        for (int move : moves) {
+            if (move == Board.PASS) {
+                game.passTurn();
+            } else {
+                game.playerMove(move / 9, move % 9);
+                game.nextTurn();
+            }
+        }
+        return game.snapshot();
+    }
+
+    private void assertSamePosition(GameSnapshot expected, GameSnapshot actual) {
+        for (int i = 0; i < 9; i++)
+            for (int j = 0; j < 9; j++)
+                assertEquals(expected.get(i, j), actual.get(i, j));
+        assertEquals(expected.getTurn(), actual.getTurn());
+        assertEquals(expected.getScore(0), actual.getScore(0));
+        assertEquals(expected.getScore(1), actual.getScore(1));
+        assertEquals(expected.getMoveNumber(), actual.getMoveNumber());
+    }
+
+}
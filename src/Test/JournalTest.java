@@ -0,0 +1,165 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+import sample.Model.Game;
+import sample.Model.Journal.FsyncPolicy;
+import sample.Model.Journal.MoveJournal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+class JournalTest {
+
+    @Test
+    void testRecoverFromSnapshotAndTail() throws Exception {
+        Path file = Files.createTempFile("betago", ".journal");
+        Game game = new Game();
+        Game other = new Game();
+        other.setBoardSize(13);
+
+        try (MoveJournal journal = new MoveJournal(file, FsyncPolicy.EVERY_BATCH, 0, 4)) {
+            game.setJournal(journal, 1);
+            other.setJournal(journal, 2);
+
+            game.playerMove(8, 6);                  // same sequence as GameTest.testKO, so the ko state is journaled too
+            game.playerMove(7, 7);
+            game.playerMove(8, 8);
+            game.nextTurn();
+            game.playerMove(7, 8);
+            game.playerMove(8, 7);
+            game.nextTurn();
+
+            other.playerMove(3, 3);
+            other.nextTurn();
+            other.passTurn();
+            journal.flush();
+        }
+
+        Map<Long, Game> recovered = MoveJournal.recover(file);
+        assertEquals(2, recovered.size());
+
+        Game g = recovered.get(1L);
+        assertEquals(game.toString(), g.toString());
+        assertEquals(game.getCurrentPlayer().getColor(), g.getCurrentPlayer().getColor());
+        assertEquals(false, g.isValidMove(8, 8));  // ko survives recovery
+
+        Game o = recovered.get(2L);
+        assertEquals(13, o.getBoardSize());
+        assertEquals(other.toString(), o.toString());
+        assertEquals(other.getCurrentPlayer().getColor(), o.getCurrentPlayer().getColor());
+        Files.delete(file);
+    }
+
+    @Test
+    void testTornTailAndEndedGames() throws Exception {
+        Path file = Files.createTempFile("betago", ".journal");
+        Game game = new Game();
+
+        try (MoveJournal journal = new MoveJournal(file)) {
+            Game finished = new Game();
+            finished.setJournal(journal, 7);
+            finished.playerMove(0, 0);
+            journal.appendEnd(7);
+
+            game.setJournal(journal, 1);
+            game.playerMove(4, 4);
+            game.nextTurn();
+            game.playerMove(2, 2);
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 3);        // simulate a crash in the middle of the last write
+        }
+
+        Map<Long, Game> recovered = MoveJournal.recover(file);
+        assertEquals(1, recovered.size());
+        assertNotNull(recovered.get(1L).getBoard().getBoard()[4][4]);
+        assertNull(recovered.get(1L).getBoard().getBoard()[2][2]);
+        Files.delete(file);
+    }
+
+    @Test
+    void testRecoverUndoAndRedoWithoutHistory() throws Exception {
+        Path file = Files.createTempFile("betago", ".journal");
+        Game game = new Game();
+        game.setUndoEnabled(true);
+
+        try (MoveJournal journal = new MoveJournal(file, FsyncPolicy.EVERY_BATCH, 0, 3)) {
+            game.setJournal(journal, 1);
+            int[][] moves = {{5, 5}, {0, 0}, {0, 1}, {4, 4}, {1, 0}, {2, 2}};      // black's 1,0 takes the corner stone
+            for (int[] move : moves) {
+                game.playerMove(move[0], move[1]);
+                game.nextTurn();
+            }
+            game.undo();                            // three in a row, across a periodic snapshot
+            game.undo();                            // puts the captured stone back
+            game.undo();
+            game.redo();
+            game.passTurn();
+            journal.flush();
+        }
+
+        Game recovered = MoveJournal.recover(file).get(1L);
+        assertEquals(game.toString(), recovered.toString());
+        assertEquals(game.getCurrentPlayer().getColor(), recovered.getCurrentPlayer().getColor());
+        assertEquals(game.getMoveNumber(), recovered.getMoveNumber());
+        assertEquals(game.getEstimatedLead(), recovered.getEstimatedLead());
+        assertFalse(recovered.canUndo());
+        Files.delete(file);
+    }
+
+    @Test
+    void testRecoverAfterDeadStonesAreScored() throws Exception {
+        Path file = Files.createTempFile("betago", ".journal");
+        Game game = new Game();
+        game.setDeadStones(position -> {            // the lone white stone is dead
+            boolean[] dead = new boolean[position.size() * position.size()];
+            dead[4 * position.size() + 4] = true;
+            return dead;
+        });
+
+        try (MoveJournal journal = new MoveJournal(file)) {
+            game.setJournal(journal, 1);
+            game.passTurn();
+            game.playerMove(4, 4);
+            game.nextTurn();
+            game.passTurn();
+            game.passTurn();                        // scored here, taking 4,4 off
+            journal.flush();
+        }
+        assertNull(game.getBoard().getBoard()[4][4]);
+
+        Game recovered = MoveJournal.recover(file).get(1L);
+        assertEquals(game.toString(), recovered.toString());
+        assertEquals(game.getPlayers()[0].getScore(), recovered.getPlayers()[0].getScore());
+        assertEquals(game.getPlayers()[1].getScore(), recovered.getPlayers()[1].getScore());
+        assertEquals(game.getMoveNumber(), recovered.getMoveNumber());
+        Files.delete(file);
+    }
+
+    @Test
+    void testAppendsFailOnceTheWriterHasFailed() throws Exception {
+        Path full = Paths.get("/dev/full");                         // every write fails with ENOSPC
+        assumeTrue(Files.isWritable(full));
+        MoveJournal journal = new MoveJournal(full);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertThrows(UncheckedIOException.class, () -> {
+                for (int i = 0; i < 1 << 20; i++)                   // many times the queue's capacity
+                    journal.appendMove(1, 0, 0);
+            });
+            assertThrows(IOException.class, journal::flush);
+            assertThrows(IOException.class, journal::close);
+        });
+        assertThrows(UncheckedIOException.class, () -> journal.appendPass(1));
+    }
+
+}
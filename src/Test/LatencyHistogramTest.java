@@ -0,0 +1,28 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Model.Metrics.LatencyHistogram;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++)
+            histogram.record(1_000);            // 1 us
+        histogram.record(1_000_000);            // 1 ms
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(1.024, histogram.getPercentileMicros(50));
+        assertEquals(1.024, histogram.getPercentileMicros(99));
+        assertEquals(1048.576, histogram.getPercentileMicros(100));
+        assertEquals(1000.0, histogram.getMaxMicros());
+        assertEquals(10.99, histogram.getMeanMicros(), 1e-9);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getPercentileMicros(50));
+    }
+
+}
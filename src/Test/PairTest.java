@@ -0,0 +1,21 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import sample.Model.Utility.Pair;
+import org.junit.jupiter.api.Test;
+
+class PairTest {
+
+    @Test
+    void testEquals() {
+        Pair<Integer, Integer> pair = new Pair<>(3, 4);
+
+        assertEquals(new Pair<>(3, 4), pair);
+        assertEquals(new Pair<>(3, 4).hashCode(), pair.hashCode());
+        assertNotEquals(new Pair<>(4, 3), pair);
+        assertNotEquals(pair, "3,4");                   // used to throw ClassCastException
+        assertNotEquals(pair, null);
+        assertEquals(new Pair<>(null, 1), new Pair<>(null, 1));
+    }
+
+}
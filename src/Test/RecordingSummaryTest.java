@@ -0,0 +1,48 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import jdk.jfr.Recording;
+import sample.Model.Game;
+import sample.Profiling.RecordingSummary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class RecordingSummaryTest {
+
+    @Test
+    void testSummaryListsModelEvents() throws Exception {
+        Path file = Files.createTempFile("betago", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("betago.PlayerMove").withThreshold(java.time.Duration.ZERO);
+            recording.enable("betago.ScoreBoard");
+            recording.start();
+
+            Game game = new Game();
+            game.playerMove(0, 1);      // black
+            game.nextTurn();
+            game.playerMove(0, 0);      // white, captured next move
+            game.nextTurn();
+            game.playerMove(1, 0);
+            game.nextTurn();
+            game.gameOver();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RecordingSummary.summarize(file, 10, new PrintStream(bytes, true));
+        String summary = bytes.toString();
+        Files.delete(file);
+
+        assertTrue(summary.contains("betago.PlayerMove"));
+        assertTrue(summary.contains("betago.ScoreBoard"));
+        assertTrue(summary.contains("stonesCaptured: 1"));
+        assertTrue(summary.contains("(;SZ[9]AB[ba]AW[aa])"));      // before the capturing move
+    }
+
+}
@@ -0,0 +1,175 @@
+package Test;
+
+import java.util.Arrays;
+
+// The rules written the slow, obvious way, for DifferentialFuzzer to hold the real engine to.
+// Points are row * size + col. A move is illegal on an occupied point, if it leaves its own
+// group without liberties after capturing, or if it recreates the position before the
+// opponent's last move (simple ko; a pass clears it). Every check floods groups from scratch.
+class ReferenceEngine {
+
+    static final int EMPTY = 0, BLACK = 1, WHITE = 2;
+
+    final int size;
+    private int[] cells;
+    private int[] beforeLastMove;       // null after a pass or at the start
+    private int toMove = BLACK;
+    private final int[] captures = new int[3];
+    private int[] lastCaptured = new int[0];
+    private int passes;
+
+    ReferenceEngine(int size) {
+        this.size = size;
+        this.cells = new int[size * size];
+    }
+
+    int get(int p) {
+        return cells[p];
+    }
+
+    int toMove() {
+        return toMove;
+    }
+
+    int captures(int color) {
+        return captures[color];
+    }
+
+    int[] lastCaptured() {
+        return lastCaptured;
+    }
+
+    boolean isOver() {
+        return passes >= 2;
+    }
+
+    boolean isLegal(int p) {
+        if (cells[p] != EMPTY)
+            return false;
+        int[] after = cells.clone();
+        if (place(after, p, toMove) < 0)
+            return false;
+        return beforeLastMove == null || !Arrays.equals(after, beforeLastMove);
+    }
+
+    boolean isKo(int p) {                   // empty and not suicide, but illegal because it repeats the position
+        return cells[p] == EMPTY && place(cells.clone(), p, toMove) >= 0 && !isLegal(p);
+    }
+
+    void play(int p) {                      // p must be legal
+        int[] after = cells.clone();
+        int[] removed = new int[size * size];
+        int n = place(after, p, toMove, removed);
+        lastCaptured = Arrays.copyOf(removed, n);
+        captures[toMove] += n;
+        beforeLastMove = cells;
+        cells = after;
+        toMove = 3 - toMove;
+        passes = 0;
+    }
+
+    void pass() {
+        lastCaptured = new int[0];
+        beforeLastMove = null;
+        toMove = 3 - toMove;
+        passes++;
+    }
+
+    int liberties(int p) {                  // distinct liberties of the group at p
+        return liberties(cells, p);
+    }
+
+    private int liberties(int[] cells, int p) {
+        boolean[] inGroup = new boolean[size * size], liberty = new boolean[size * size];
+        int[] stack = new int[size * size];
+        int top = 0, count = 0;
+        stack[top++] = p;
+        inGroup[p] = true;
+        while (top > 0) {
+            int x = stack[--top];
+            for (int q : neighbors(x)) {
+                if (cells[q] == EMPTY && !liberty[q]) {
+                    liberty[q] = true;
+                    count++;
+                } else if (cells[q] == cells[p] && !inGroup[q]) {
+                    inGroup[q] = true;
+                    stack[top++] = q;
+                }
+            }
+        }
+        return count;
+    }
+
+    int territory(int color) {              // empty points in regions bordered by that colour alone
+        boolean[] seen = new boolean[size * size];
+        int total = 0;
+        for (int start = 0; start < size * size; start++) {
+            if (cells[start] != EMPTY || seen[start])
+                continue;
+            int[] stack = new int[size * size];
+            int top = 0, count = 0, borders = 0;
+            stack[top++] = start;
+            seen[start] = true;
+            while (top > 0) {
+                int x = stack[--top];
+                count++;
+                for (int q : neighbors(x)) {
+                    if (cells[q] != EMPTY)
+                        borders |= cells[q];
+                    else if (!seen[q]) {
+                        seen[q] = true;
+                        stack[top++] = q;
+                    }
+                }
+            }
+            if (borders == color)
+                total += count;
+        }
+        return total;
+    }
+
+    private int place(int[] board, int p, int color) {
+        return place(board, p, color, new int[size * size]);
+    }
+
+    private int place(int[] board, int p, int color, int[] removed) {     // stones captured, or -1 for suicide
+        board[p] = color;
+        int n = 0;
+        for (int q : neighbors(p))
+            if (board[q] == 3 - color && liberties(board, q) == 0)
+                n = removeGroup(board, q, removed, n);
+        if (liberties(board, p) == 0)
+            return -1;
+        return n;
+    }
+
+    private int removeGroup(int[] board, int p, int[] removed, int n) {
+        int color = board[p];
+        int[] stack = new int[size * size];
+        int top = 0;
+        stack[top++] = p;
+        board[p] = EMPTY;
+        removed[n++] = p;
+        while (top > 0) {
+            int x = stack[--top];
+            for (int q : neighbors(x))
+                if (board[q] == color) {
+                    board[q] = EMPTY;
+                    removed[n++] = q;
+                    stack[top++] = q;
+                }
+        }
+        return n;
+    }
+
+    int[] neighbors(int p) {
+        int row = p / size, col = p % size, n = 0;
+        int[] out = new int[4];
+        if (row > 0)        out[n++] = p - size;
+        if (col < size - 1) out[n++] = p + 1;
+        if (row < size - 1) out[n++] = p + size;
+        if (col > 0)        out[n++] = p - 1;
+        return Arrays.copyOf(out, n);
+    }
+
+}
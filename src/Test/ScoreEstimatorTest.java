@@ -0,0 +1,60 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Model.Board;
+import sample.Model.Game;
+import sample.Model.Utility.Pair;
+
+import java.util.Random;
+
+class ScoreEstimatorTest {
+
+    @Test
+    void testMatchesFullRescoreThroughRandomGames() {
+        Random random = new Random(42);
+        for (int size : new int[]{5, 9, 13}) {
+            Game game = new Game(size);
+            for (int move = 0; move < size * size * 3; move++) {
+                int row = random.nextInt(size), col = random.nextInt(size);
+                if (game.isValidMove(row, col)) {
+                    game.playerMove(row, col);
+                    game.nextTurn();
+
+                    Pair<Integer, Integer> full = copyOf(game.getBoard()).scoreBoard();
+                    assertEquals(full.getKey().intValue(), game.getScoreEstimator().getBlackTerritory());
+                    assertEquals(full.getValue().intValue(), game.getScoreEstimator().getWhiteTerritory());
+                }
+            }
+            game.restartGame();
+            assertEquals(0, game.getScoreEstimator().getBlackTerritory());
+            assertEquals(0, game.getEstimatedLead());
+        }
+    }
+
+    @Test
+    void testLeadIncludesCaptures() {
+        Game game = new Game(5);
+        game.nextTurn();
+        game.playerMove(4, 4);
+        game.nextTurn();
+        game.playerMove(0, 1);
+        game.nextTurn();
+        game.playerMove(0, 0);
+        game.nextTurn();
+        game.playerMove(1, 0);          // black captures, and the corner is black's
+
+        assertEquals(1, game.getScoreEstimator().getBlackTerritory());
+        assertEquals(2, game.getEstimatedLead());
+    }
+
+    private static Board copyOf(Board board) {      // scoreBoard() mutates while it runs, so score a copy
+        Board copy = new Board(board.size());
+        for (int i = 0; i < board.size(); i++)
+            for (int j = 0; j < board.size(); j++)
+                if (board.getBoard()[i][j] != null)
+                    copy.placeStoneOnBoard(i, j, board.getBoard()[i][j].getColor());
+        return copy;
+    }
+
+}
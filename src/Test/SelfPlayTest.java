@@ -0,0 +1,62 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sample.Simulation.SelfPlayCoordinator;
+import sample.Simulation.SelfPlayWorker;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+
+class SelfPlayTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testFailedWorkersBatchIsReassigned() throws Exception {
+        SelfPlayCoordinator coordinator = new SelfPlayCoordinator(50, 7, 7, "random", 5, 5000);
+        Path output = dir.resolve("games.csv");
+        int port = coordinator.start(0, output);
+
+        try (Socket socket = new Socket("localhost", port)) {          // takes a batch and dies with it
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+            out.println("HELLO flaky");
+            String batch = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)).readLine();
+            assertTrue(batch.startsWith("BATCH 0 0 7 7 random 5"));
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        Future<Integer> a = workers.submit(() -> new SelfPlayWorker(2).run("localhost", port));
+        Future<Integer> b = workers.submit(() -> new SelfPlayWorker(1).run("localhost", port));
+        coordinator.awaitCompletion();
+        assertEquals(8, a.get(10, TimeUnit.SECONDS) + b.get(10, TimeUnit.SECONDS));     // 50 games in batches of 7
+        workers.shutdown();
+        assertEquals(1, coordinator.getReassigned());
+        assertEquals(3, coordinator.getWorkers());
+
+        List<String> lines = Files.readAllLines(output);
+        assertEquals("game,moves,black,white", lines.get(0));
+        assertEquals(51, lines.size());
+        for (int game = 0; game < 50; game++)
+            assertTrue(lines.get(game + 1).startsWith(game + ","), lines.get(game + 1));
+        assertFalse(Files.exists(dir.resolve("games.csv.parts")));
+
+        Path again = dir.resolve("again.csv");                          // the same games, wherever they were played
+        SelfPlayCoordinator second = new SelfPlayCoordinator(50, 20, 7, "random", 5, 5000);
+        int secondPort = second.start(0, again);
+        Future<Integer> c = Executors.newSingleThreadExecutor().submit(() -> new SelfPlayWorker(3).run("localhost", secondPort));
+        second.awaitCompletion();
+        c.get(10, TimeUnit.SECONDS);
+        assertEquals(lines, Files.readAllLines(again));
+    }
+
+}
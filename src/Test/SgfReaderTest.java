@@ -0,0 +1,52 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import javafx.scene.paint.Color;
+import sample.Model.Record.GameRecord;
+import sample.Model.Record.SgfReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+class SgfReaderTest {
+
+    private static GameRecord read(String sgf) throws IOException {
+        return new SgfReader(new StringReader(sgf)).read();
+    }
+
+    @Test
+    void testMovesPassesAndResult() throws Exception {
+        GameRecord record = read("(;GM[1]SZ[13]RE[W+3.5]\n;B[cd];W[];B[tt];W[mm])");
+        assertEquals(13, record.size());
+        assertEquals(4, record.length());
+        assertEquals(Color.BLACK, record.getColor(0));
+        assertEquals(3, record.getRow(0));              // SGF gives the column first
+        assertEquals(2, record.getCol(0));
+        assertTrue(record.isPass(1));
+        assertTrue(record.isPass(2));                   // tt is a pass on boards up to 19x19
+        assertEquals(Color.WHITE, record.getColor(3));
+        assertEquals(12, record.getRow(3));
+        assertEquals(Color.WHITE, record.getWinner());
+        assertFalse(record.hasSetupStones());
+    }
+
+    @Test
+    void testSetupStonesAreCounted() throws Exception {
+        GameRecord record = read("(;SZ[19]HA[2]AB[dp][pd];W[qp])");
+        assertTrue(record.hasSetupStones());
+        assertEquals(1, record.length());
+    }
+
+    @Test
+    void testMalformedInput() {
+        assertThrows(IOException.class, () -> read(""));
+        assertThrows(IOException.class, () -> read("not a game record"));
+        assertThrows(IOException.class, () -> read("(;SZ[9];B[ee]"));         // unbalanced
+        assertThrows(IOException.class, () -> read("(;SZ[9];B[ee)"));         // unterminated value
+        assertThrows(IOException.class, () -> read("(;SZ[nine];B[ee])"));
+        assertThrows(IOException.class, () -> read("(;SZ[9];B[jj])"));        // off the board
+        assertThrows(IOException.class, () -> read("(;SZ[9];B[e])"));
+    }
+
+}
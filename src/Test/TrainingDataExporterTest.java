@@ -0,0 +1,66 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Training.TrainingDataExporter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+class TrainingDataExporterTest {
+
+    @Test
+    void testEightDistinctSymmetries() {
+        int size = 5;
+        Set<String> images = new HashSet<>();
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            int[] image = new int[size * size];
+            boolean[] hit = new boolean[size * size];
+            for (int p = 0; p < size * size; p++) {
+                image[p] = TrainingDataExporter.transform(symmetry, p / size, p % size, size);
+                assertFalse(hit[image[p]]);                 // one to one
+                hit[image[p]] = true;
+            }
+            for (int p = 0; p < size * size; p++) {         // neighbours stay neighbours
+                if (p % size < size - 1)
+                    assertEquals(1, distance(image[p], image[p + 1], size));
+                if (p / size < size - 1)
+                    assertEquals(1, distance(image[p], image[p + size], size));
+            }
+            images.add(java.util.Arrays.toString(image));
+        }
+        assertEquals(8, images.size());
+
+        assertEquals(1 * size + 2, TrainingDataExporter.transform(0, 1, 2, size));     // identity
+        assertEquals(1 * size + 4, TrainingDataExporter.transform(1, 1, 0, size));     // mirrored left to right
+        assertEquals(3 * size + 2, TrainingDataExporter.transform(2, 1, 2, size));     // upside down
+        assertEquals(2 * size + 1, TrainingDataExporter.transform(4, 1, 2, size));     // transposed
+    }
+
+    private static int distance(int a, int b, int size) {
+        return Math.abs(a / size - b / size) + Math.abs(a % size - b % size);
+    }
+
+    @Test
+    void testRecordsWithSetupStonesAreSkipped() throws Exception {
+        Path dir = Files.createTempDirectory("betago-sgf");
+        Path handicap = dir.resolve("handicap.sgf"), even = dir.resolve("even.sgf");
+        Files.write(handicap, "(;SZ[9]AB[cc][gg];W[ee];B[ce])".getBytes());
+        Files.write(even, "(;SZ[9];B[cc];W[ee];B[ce])".getBytes());
+
+        TrainingDataExporter exporter = new TrainingDataExporter(1, 1);
+        exporter.exportFile(handicap, dir.resolve("handicap.bin"));
+        exporter.exportFile(even, dir.resolve("even.bin"));
+        assertEquals(1, exporter.getGamesWithSetup());
+        assertEquals(1, exporter.getGamesExported());
+        assertFalse(Files.exists(dir.resolve("handicap.bin")));
+        assertTrue(Files.size(dir.resolve("even.bin")) > 6);
+
+        for (String name : new String[]{"handicap.sgf", "even.sgf", "even.bin"})
+            Files.delete(dir.resolve(name));
+        Files.delete(dir);
+    }
+
+}
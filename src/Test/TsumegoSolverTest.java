@@ -0,0 +1,76 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import javafx.scene.paint.Color;
+import sample.Model.Analysis.TsumegoSolver;
+import sample.Model.Analysis.TsumegoSolver.Result;
+import sample.Model.Board;
+
+class TsumegoSolverTest {
+
+    private final TsumegoSolver solver = new TsumegoSolver(16);
+
+    @Test
+    void testStraightThreeDependsOnWhoMoves() {
+        Board board = board("...XO",
+                            "XXXXO",
+                            "OOOOO");
+        boolean[] region = TsumegoSolver.regionAround(board, 0, 3, 1);
+        assertTrue(region[0] && region[1] && region[2] && region[3]);
+        assertFalse(region[4] || region[9 * 2]);
+
+        assertEquals(Result.KILLED, solver.solve(board, 0, 3, region, Color.WHITE, 100_000));
+        assertEquals(1, solver.getBestMove());                 // the vital point in the middle
+        assertEquals(Result.ALIVE, solver.solve(board, 0, 3, region, Color.BLACK, 100_000));
+        assertEquals(1, solver.getBestMove());
+    }
+
+    @Test
+    void testStraightFourLives() {
+        Board board = board("....XO",
+                            "XXXXXO",
+                            "OOOOOO");
+        assertEquals(Result.ALIVE, solver.solve(board, 0, 4, TsumegoSolver.regionAround(board, 0, 4, 1), Color.WHITE, 100_000));
+    }
+
+    @Test
+    void testStraightTwoDies() {
+        Board board = board("..XO",
+                            "XXXO",
+                            "OOOO");
+        assertEquals(Result.KILLED, solver.solve(board, 0, 2, TsumegoSolver.regionAround(board, 0, 2, 1), Color.BLACK, 100_000));
+        assertEquals(Board.NONE, solver.getBestMove());
+    }
+
+    @Test
+    void testBulkyFive() {
+        Board board = board("...XO",
+                            "..XXO",
+                            "XXXOO",
+                            "OOOO.");
+        boolean[] region = TsumegoSolver.regionAround(board, 0, 3, 1);
+        assertEquals(Result.KILLED, solver.solve(board, 0, 3, region, Color.WHITE, 1_000_000));
+        assertEquals(1, solver.getBestMove());
+        assertEquals(Result.ALIVE, solver.solve(board, 0, 3, region, Color.BLACK, 1_000_000));
+    }
+
+    @Test
+    void testGivesUpAfterMaxNodes() {
+        Board board = board("...XO",
+                            "..XXO",
+                            "XXXOO",
+                            "OOOO.");
+        assertEquals(Result.UNKNOWN, solver.solve(board, 0, 3, TsumegoSolver.regionAround(board, 0, 3, 1), Color.WHITE, 3));
+    }
+
+    private static Board board(String... rows) {            // the top left corner of a 9x9 board; X black, O white
+        Board board = new Board(9);
+        for (int i = 0; i < rows.length; i++)
+            for (int j = 0; j < rows[i].length(); j++)
+                if (rows[i].charAt(j) != '.')
+                    board.placeStoneOnBoard(i, j, rows[i].charAt(j) == 'X' ? Color.BLACK : Color.WHITE);
+        return board;
+    }
+
+}
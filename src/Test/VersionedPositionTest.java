@@ -0,0 +1,126 @@
+package Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import sample.Model.Game;
+import sample.Model.GameSnapshot;
+import sample.Model.VersionedPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class VersionedPositionTest {
+
+    @Test
+    void testReadersSeeWholePositionsWhileMovesArePlayed() throws Exception {
+        Game game = new Game();
+        game.setPublishing(true);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        List<Throwable> failures = new ArrayList<>();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    VersionedPosition last = null;
+                    while (!done.get()) {
+                        VersionedPosition position = game.getPublishedPosition();
+                        assertNotNull(position);
+                        assertTrue(position.getVersion() >= (last == null ? 0 : last.getVersion()));  // never goes back
+                        if (position.isNewerThan(last))
+                            assertConsistent(position.getSnapshot());
+                        last = position;
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    synchronized (failures) {
+                        failures.add(t);
+                    }
+                }
+            }, "reader-" + r));
+        }
+        readers.forEach(Thread::start);
+
+        Random random = new Random(17);
+        long firstVersion = game.getPublishedPosition().getVersion(), changes = 0;
+        for (int moves = 0; moves < 50_000; moves++) {
+            if (game.getMoveNumber() > 120) {
+                game.restartGame();
+                changes++;
+            }
+            int p = random.nextInt(81);
+            if (game.isValidMove(p / 9, p % 9)) {
+                game.playerMove(p / 9, p % 9);
+                game.nextTurn();
+                changes++;                          // published once, by nextTurn()
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers)
+            reader.join();
+
+        if (!failures.isEmpty())
+            throw new AssertionError(failures.get(0));
+        assertTrue(reads.get() > 0);
+        assertEquals(firstVersion + changes, game.getPublishedPosition().getVersion());
+    }
+
+    @Test
+    void testMoveIsPublishedByTheNextTurn() {
+        Game game = new Game();
+        game.setPublishing(true);
+        VersionedPosition before = game.getPublishedPosition();
+
+        game.playerMove(4, 4);
+        assertSame(before, game.getPublishedPosition());       // not whole until the turn is handed over
+
+        game.nextTurn();
+        VersionedPosition after = game.getPublishedPosition();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(GameSnapshot.BLACK, after.getSnapshot().get(4, 4));
+        assertEquals(1, after.getSnapshot().getTurn());
+    }
+
+    private static void assertConsistent(GameSnapshot position) {
+        int size = position.size(), stones = 0;
+        for (int p = 0; p < size * size; p++)
+            if (position.get(p / size, p % size) != GameSnapshot.EMPTY)
+                stones++;
+        // only moves are played, so every move is a stone on the board or one its opponent captured
+        assertEquals(position.getMoveNumber(), stones + position.getScore(0) + position.getScore(1));
+        assertEquals(position.getMoveNumber() % 2, position.getTurn());        // the turn has been handed over
+
+        boolean[] seen = new boolean[size * size];
+        int[] chain = new int[size * size];
+        for (int start = 0; start < size * size; start++) {
+            byte color = position.get(start / size, start % size);
+            if (color == GameSnapshot.EMPTY || seen[start])
+                continue;
+            int n = 0;
+            boolean liberty = false;
+            chain[n++] = start;
+            seen[start] = true;
+            for (int k = 0; k < n; k++) {
+                int row = chain[k] / size, col = chain[k] % size;
+                int[][] neighbours = {{row - 1, col}, {row + 1, col}, {row, col - 1}, {row, col + 1}};
+                for (int[] q : neighbours) {
+                    if (q[0] < 0 || q[1] < 0 || q[0] >= size || q[1] >= size)
+                        continue;
+                    byte cell = position.get(q[0], q[1]);
+                    if (cell == GameSnapshot.EMPTY) {
+                        liberty = true;
+                    } else if (cell == color && !seen[q[0] * size + q[1]]) {
+                        seen[q[0] * size + q[1]] = true;
+                        chain[n++] = q[0] * size + q[1];
+                    }
+                }
+            }
+            assertTrue(liberty, "a chain without liberties is still on the board");
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package sample;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
+
+// Images from src/images, decoded in the background at the size they are shown at and shared
+// by every screen that asks for the same image and size.
+final class ImageCache {
+
+    private static final ConcurrentHashMap<String, Image> images = new ConcurrentHashMap<>();
+
+    private ImageCache() {}
+
+    static Image get(String name, double width, double height, boolean preserveRatio) {
+        return images.computeIfAbsent(name + "@" + width + "x" + height + (preserveRatio ? "p" : ""), key ->
+                new Image(Main.class.getResource("../images/" + name).toExternalForm(), width, height, preserveRatio, true, true));
+    }
+
+    static void whenLoaded(Image image, Runnable action) {      // runs on the FX thread once loaded or failed, right away if done
+        if (image.getProgress() >= 1.0 || image.isError()) {
+            action.run();
+            return;
+        }
+        ChangeListener<Object> listener = new ChangeListener<Object>() {
+            @Override
+            public void changed(ObservableValue<?> observable, Object oldValue, Object newValue) {
+                if (image.getProgress() < 1.0 && !image.isError())
+                    return;
+                image.progressProperty().removeListener(this);      // fires once, then lets go of the action
+                image.errorProperty().removeListener(this);
+                action.run();
+            }
+        };
+        image.progressProperty().addListener(listener);
+        image.errorProperty().addListener(listener);
+    }
+
+}
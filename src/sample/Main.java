@@ -8,23 +8,57 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.*;
 import javafx.stage.Stage;
 import sample.Model.*;
-import sample.Model.Utility.*;
+import sample.Model.Analysis.*;
 
 public class Main extends Application {
 
-    private static int HEIGHT = (int) (java.awt.Toolkit.getDefaultToolkit().getScreenSize().getHeight() / 1.20);
-    private static int WIDTH = HEIGHT;
+    private static int HEIGHT;              // set from the primary screen in start()
+    private static int WIDTH;
+    private static final int[] BOARD_SIZES = {9, 13, 19, 25, 37};
 
-    private Game game;
+    private GameEngine engine;              // owns the Game; all model work runs on its thread
+    private GameEngine.State state;         // latest position handed back by the engine
     private GameView gameView;
 
+    private static final String[] ANALYSIS_MODES = {"Off", "Ownership", "Moves"};
+    private static final int ANALYSIS_OFF = 0, ANALYSIS_OWNERSHIP = 1, ANALYSIS_MOVES = 2;
+    private static final long ANALYSIS_FRAME_NANOS = 1_000_000_000L / 10;   // overlay refresh cap
+
+    private Analyzer analyzer;              // started the first time analysis is turned on
+    private int analysisMode = ANALYSIS_OFF;
+    private final javafx.animation.AnimationTimer analysisTimer = new javafx.animation.AnimationTimer() {
+        private long lastFrame;
+
+        @Override
+        public void handle(long now) {
+            if (now - lastFrame < ANALYSIS_FRAME_NANOS)
+                return;
+            lastFrame = now;
+            gameView.drawAnalysis(analyzer.getSnapshot());
+        }
+    };
+
     public static void main(String[] args) {
         launch(args);
     }
 
     @Override
     public void start(Stage primaryStage) {
-        game = new Game();
+        HEIGHT = (int) (javafx.stage.Screen.getPrimary().getBounds().getHeight() / 1.20);
+        WIDTH = HEIGHT;
+        ImageCache.get("wood1.jpg", WIDTH, HEIGHT, false);              // start decoding while the scene is built
+
+        Game game = new Game();
+        game.setUndoEnabled(true);
+        game.setMetricsEnabled(true);
+        game.setDeadStones(new DeadStoneEstimator(200, 1000, Runtime.getRuntime().availableProcessors())::deadStones);
+        engine = new GameEngine(game, javafx.application.Platform::runLater, newState -> {
+            state = newState;
+            if (analysisMode != ANALYSIS_OFF)
+                analyzer.analyze(newState.getSnapshot());
+            gameView.updateGamePlayScreen();
+        });
+        state = engine.currentState();
 
         gameView = new GameView();
         gameView.getStylesheets().add("sample/stylesheet.css");
@@ -34,28 +68,70 @@ public class Main extends Application {
         primaryStage.setTitle("BetaGo");
         primaryStage.setScene( new Scene(gameView, WIDTH / 0.80, HEIGHT) );
         primaryStage.show();
+
+        if (Boolean.getBoolean("betago.startupBenchmark"))
+            reportFirstFrame();
+    }
+
+    private void setAnalysisMode(int mode) {
+        analysisMode = mode;
+        gameView.drawAnalysis(null);                                    // the next frame redraws in the new mode
+        if (mode == ANALYSIS_OFF) {
+            analysisTimer.stop();
+            if (analyzer != null)
+                analyzer.pause();
+            return;
+        }
+        if (analyzer == null)
+            analyzer = new Analyzer(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        analyzer.analyze(state.getSnapshot());
+        analysisTimer.start();
+    }
+
+    private void reportFirstFrame() {       // used by Benchmark.StartupBenchmark
+        new javafx.animation.AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                long startedAt = java.lang.management.ManagementFactory.getRuntimeMXBean().getStartTime();
+                System.out.println("first frame after " + (System.currentTimeMillis() - startedAt) + " ms");
+                javafx.application.Platform.exit();
+            }
+        }.start();
     }
 
     class GameView extends StackPane {
 
-        private GamePlayScreen gamePlayScreen;
+        private GamePlayScreen gamePlayScreen;  // screens are built the first time they are shown
         private HomeScreen homeScreen;
-
-        GameView() {
-            gamePlayScreen = new GamePlayScreen();
-            homeScreen = new HomeScreen();
-        }
+        private ReplayScreen replayScreen;
 
         public void displayHomeScreen() {
+            if (homeScreen == null)
+                homeScreen = new HomeScreen();
             displayScreen(homeScreen);
         }
 
         public void displayGamePlayScreen() {
+            if (gamePlayScreen == null)
+                gamePlayScreen = new GamePlayScreen();
             displayScreen(gamePlayScreen);
         }
 
+        public void displayReplayScreen() {
+            if (replayScreen == null)
+                replayScreen = new ReplayScreen();
+            displayScreen(replayScreen);
+        }
+
         public void updateGamePlayScreen() {
-            gamePlayScreen.update();
+            if (gamePlayScreen != null)
+                gamePlayScreen.update();
+        }
+
+        public void drawAnalysis(AnalysisSnapshot analysis) {
+            if (gamePlayScreen != null)
+                gamePlayScreen.boardView.drawAnalysis(analysis);
         }
 
         public void displayScreen(Node screen) {
@@ -70,7 +146,7 @@ public class Main extends Application {
         private SidePanel sidePanel;
 
         GamePlayScreen() {
-            boardView = new BoardView(WIDTH, HEIGHT);
+            boardView = new BoardView(WIDTH, HEIGHT, true);
             sidePanel = new SidePanel();
 
             ColumnConstraints col1 = new ColumnConstraints();
@@ -84,100 +160,272 @@ public class Main extends Application {
         }
 
         public void update() {
-            boardView.drawBoardState();
-            sidePanel.updateLabel();
+            boardView.show(state.getSnapshot());
+            sidePanel.update();
         }
 
     }
 
-    class BoardView extends Canvas {
-        private GraphicsContext gc;
-
-        BoardView(int width, int height) {
-            super(width, height);
+    class BoardView extends Pane {
+        private Canvas gridLayer;           // wood and grid lines, redrawn only when the board size changes
+        private Canvas analysisLayer;       // heatmap, redrawn when a new analysis snapshot is drawn
+        private Canvas stoneLayer;          // stones, redrawn cell by cell where the board changed
+        private Canvas hoverLayer;          // preview of the stone under the pointer
+        private Color[][] drawnStones;      // what stoneLayer currently shows
+        private GameSnapshot shown;
+        private AnalysisSnapshot drawnAnalysis;
+        private int hoverPoint = Board.NONE;
+
+        BoardView(int width, int height, boolean interactive) {
             getStyleClass().add("boardView");
-            gc = getGraphicsContext2D();
+            gridLayer  = new Canvas(width, height);
+            analysisLayer = new Canvas(width, height);
+            stoneLayer = new Canvas(width, height);
+            hoverLayer = new Canvas(width, height);
+            getChildren().addAll(gridLayer, analysisLayer, stoneLayer, hoverLayer);
+            show(state.getSnapshot());
+            if(!interactive)
+                return;                                                         // replays only display positions
 
             setOnMouseClicked(event -> {
-                Pair<Integer, Integer> position = boardClickedAt(event.getX(), event.getY());
-                int row = position.getValue(), col = position.getKey();
-
-                attemptToPlaceStone(row, col);
+                int point = pointAt(event.getX(), event.getY());
+                if(point != Board.NONE)
+                    attemptToPlaceStone(point / shown.size(), point % shown.size());
             });
 
             setOnMouseMoved(event -> {
-                Pair<Integer, Integer> position = boardClickedAt(event.getX(), event.getY());
-                int row = position.getValue(), col = position.getKey();
-
-                if(game.isValidMove(row, col)) {
-                    drawBoardState();                                           // draw board on top of previously drawn valid move
-                                                                                // draw valid move on top of board
-                    if(game.getCurrentPlayer().getColor() == Color.WHITE)
-                        drawCircle(row, col, new Color(1, 1, 1, 0.5));
+                int point = pointAt(event.getX(), event.getY());
+                if(point == hoverPoint)
+                    return;                                                     // still over the same point
+                clearHover();
+                int row = point / shown.size(), col = point % shown.size();
+                if(point != Board.NONE && state.isLegalMove(row, col)) {
+                    hoverPoint = point;
+                    if(state.isWhiteToMove())
+                        drawCircle(hoverLayer, row, col, new Color(1, 1, 1, 0.5));
                     else
-                        drawCircle(row, col, new Color(0, 0, 0, 0.5));
+                        drawCircle(hoverLayer, row, col, new Color(0, 0, 0, 0.5));
                 }
             });
 
-            setOnMouseExited(event -> drawBoardState());
-
-            drawBackground();
+            setOnMouseExited(event -> clearHover());
         }
 
         private void attemptToPlaceStone(int row, int col) {
-            if(game.isValidMove(row, col)) {
-                game.playerMove(row, col);
-                game.nextTurn();
+            if(state.isLegalMove(row, col))
+                engine.playMove(row, col);                                      // the view is updated when the engine hands back the new state
+        }
 
-                gameView.updateGamePlayScreen();
+        private void show(GameSnapshot stones) {
+            shown = stones;
+            int size = stones.size();
+            if(drawnStones == null || drawnStones.length != size) {
+                drawBackground();
+                stoneLayer.getGraphicsContext2D().clearRect(0, 0, stoneLayer.getWidth(), stoneLayer.getHeight());
+                drawnStones = new Color[size][size];
             }
+
+            for (int i = 0; i < size; i++)                                      // repaint only the cells that changed, captures included
+                for (int j = 0; j < size; j++) {
+                    Color color = stones.getColor(i, j);
+                    if(color != drawnStones[i][j]) {
+                        clearCell(stoneLayer, i, j);
+                        if(color != null)
+                            drawCircle(stoneLayer, i, j, color);
+                        drawnStones[i][j] = color;
+                    }
+                }
+            clearHover();
         }
 
-        private void drawBoardState() {
-            drawBackground();
+        private void drawAnalysis(AnalysisSnapshot analysis) {
+            if (analysis != null && analysis.getPosition() != shown)
+                analysis = null;                                                // still about the previous position
+            if (analysis == drawnAnalysis)
+                return;
+            drawnAnalysis = analysis;
+
+            GraphicsContext gc = analysisLayer.getGraphicsContext2D();
+            gc.clearRect(0, 0, analysisLayer.getWidth(), analysisLayer.getHeight());
+            if (analysis == null)
+                return;
+
+            int size = analysis.size();
+            double xOffset = (int)analysisLayer.getWidth()  / size;
+            double yOffset = (int)analysisLayer.getHeight() / size;
+            for (int i = 0; i < size; i++)
+                for (int j = 0; j < size; j++) {
+                    if (analysisMode == ANALYSIS_OWNERSHIP) {
+                        float owner = analysis.getOwnership(i, j);
+                        gc.setFill(owner > 0 ? new Color(0, 0, 0, 0.6 * owner) : new Color(1, 1, 1, -0.6 * owner));
+                        gc.fillRect(j * xOffset, i * yOffset, xOffset, yOffset);
+                    } else if (analysis.getVisits(i, j) > 0) {
+                        double share = analysis.getVisits(i, j) / (double) analysis.getMaxVisits();
+                        gc.setFill(Color.hsb(120 * analysis.getWinRate(i, j), 0.9, 0.9, 0.2 + 0.6 * share));    // red losing .. green winning
+                        gc.fillOval(j * xOffset + xOffset / 4, i * yOffset + yOffset / 4, xOffset / 2, yOffset / 2);
+                    }
+                }
+        }
 
-            Stone[][] stones = game.getBoard().getBoard();
-            for (int i = 0; i < stones.length; i++)
-                for (int j = 0; j < stones.length; j++)
-                    if(stones[i][j] != null)
-                        drawCircle(i, j, stones[i][j].getColor());
+        private void clearHover() {
+            if(hoverPoint != Board.NONE)
+                clearCell(hoverLayer, hoverPoint / shown.size(), hoverPoint % shown.size());
+            hoverPoint = Board.NONE;
         }
 
-        private void drawCircle(double row, double col, Paint p) {
-            int xOffset = (int)getWidth()  / game.getBoardSize();
-            int yOffset = (int)getHeight() / game.getBoardSize();
+        private void drawCircle(Canvas layer, double row, double col, Paint p) {
+            int xOffset = (int)gridLayer.getWidth()  / shown.size();
+            int yOffset = (int)gridLayer.getHeight() / shown.size();
+
+            layer.getGraphicsContext2D().setFill(p);
+            layer.getGraphicsContext2D().fillOval(col * xOffset, row * yOffset, xOffset, yOffset);
+        }
 
-            gc.setFill(p);
-            gc.fillOval(col * xOffset, row * yOffset, xOffset, yOffset);
+        private void clearCell(Canvas layer, int row, int col) {
+            int xOffset = (int)gridLayer.getWidth()  / shown.size();
+            int yOffset = (int)gridLayer.getHeight() / shown.size();
+            layer.getGraphicsContext2D().clearRect(col * xOffset, row * yOffset, xOffset, yOffset);
         }
 
-        private Pair<Integer, Integer> boardClickedAt(double x , double y) {
-            x = (x / (getWidth()  / game.getBoardSize()));
-            y = (y / (getHeight() / game.getBoardSize()));
-            return new Pair<>((int)x, (int)y);
+        private int pointAt(double x , double y) {                            // row * size + col under the mouse, or Board.NONE off the grid
+            int size = shown.size();
+            int col = (int)(x / (gridLayer.getWidth()  / size));
+            int row = (int)(y / (gridLayer.getHeight() / size));
+            return x < 0 || y < 0 || row >= size || col >= size ? Board.NONE : row * size + col;
         }
 
-        private void drawGridLines(int size) {
-            int xOffset = (int)(getWidth()  / 1.0 / size);
-            int yOffset = (int)(getHeight() / 1.0 / size);
+        private void drawGridLines(GraphicsContext gc, int size) {
+            int xOffset = (int)(gridLayer.getWidth()  / 1.0 / size);
+            int yOffset = (int)(gridLayer.getHeight() / 1.0 / size);
             gc.setStroke(Color.BLACK);
             gc.setLineWidth(1.5);
 
             for (int i = 0; i < size; i++) {
-                gc.strokeLine(i * xOffset + xOffset / 2,  yOffset / 2, i * xOffset + xOffset / 2, game.getBoardSize() * yOffset - yOffset / 2 - 1);
-                gc.strokeLine(xOffset / 2, i * yOffset + yOffset / 2, game.getBoardSize() * xOffset - xOffset / 2 - 1, i * yOffset + yOffset / 2);
+                gc.strokeLine(i * xOffset + xOffset / 2,  yOffset / 2, i * xOffset + xOffset / 2, size * yOffset - yOffset / 2 - 1);
+                gc.strokeLine(xOffset / 2, i * yOffset + yOffset / 2, size * xOffset - xOffset / 2 - 1, i * yOffset + yOffset / 2);
             }
         }
 
-        final Image woodImg = new Image(Main.class.getResourceAsStream("../images/wood1.jpg"));
+        final Image woodImg = ImageCache.get("wood1.jpg", WIDTH, HEIGHT, false);
+        private boolean backgroundPending;                                      // a draw is already waiting on the wood
         private void drawBackground() {
-            gc.drawImage(woodImg, 0, 0, WIDTH, HEIGHT);
-            drawGridLines(game.getBoardSize());
+            if (backgroundPending)
+                return;                                                         // it draws whatever is shown by then
+            backgroundPending = true;
+            ImageCache.whenLoaded(woodImg, () -> {                              // grid is drawn with the wood once it has decoded
+                backgroundPending = false;
+                GraphicsContext gc = gridLayer.getGraphicsContext2D();
+                if (woodImg.isError())
+                    gc.clearRect(0, 0, WIDTH, HEIGHT);                          // no wood, but still a board to play on
+                else
+                    gc.drawImage(woodImg, 0, 0, WIDTH, HEIGHT);
+                drawGridLines(gc, shown.size());
+            });
+        }
+    }
+
+    class ReplayScreen extends GridPane {
+
+        private BoardView boardView;
+        private Label label;
+        private Slider slider;
+        private GameTimeline timeline;
+
+        ReplayScreen() {
+            boardView = new BoardView(WIDTH, HEIGHT, false);
+
+            slider = new Slider(0, 0, 0);
+            slider.setBlockIncrement(1);
+            slider.setMajorTickUnit(1);
+            slider.setMinorTickCount(0);
+            slider.setSnapToTicks(true);                                        // whole moves only
+            slider.valueProperty().addListener((observable, oldValue, newValue) -> seek(newValue.intValue()));
+
+            Button openBtn = new Button("Open...");
+            openBtn.setOnAction(e -> open());
+
+            Button firstBtn = new Button("|<");
+            firstBtn.setOnAction(e -> slider.setValue(0));
+            Button previousBtn = new Button("<");
+            previousBtn.setOnAction(e -> slider.setValue(slider.getValue() - 1));
+            Button nextBtn = new Button(">");
+            nextBtn.setOnAction(e -> slider.setValue(slider.getValue() + 1));
+            Button lastBtn = new Button(">|");
+            lastBtn.setOnAction(e -> slider.setValue(slider.getMax()));
+
+            HBox stepBtns = new HBox();
+            stepBtns.getChildren().addAll(firstBtn, previousBtn, nextBtn, lastBtn);
+            for(Button button : new Button[]{firstBtn, previousBtn, nextBtn, lastBtn}) {
+                button.setMinWidth(WIDTH * 0.05);
+                button.setMinHeight(HEIGHT * 0.06);
+            }
+
+            Button homeScreenBtn = new Button("Home Screen");
+            homeScreenBtn.setOnAction(e -> gameView.displayHomeScreen());
+
+            for(Button button : new Button[]{openBtn, homeScreenBtn}) {
+                button.setMinWidth(WIDTH * 0.20);
+                button.setMinHeight(HEIGHT * 0.06);
+                button.getStyleClass().add("sidePanelButton");
+            }
+
+            label = new Label("No game loaded");
+            label.getStyleClass().add("sidePanelLabel");
+            label.setPrefWidth(WIDTH * 0.20);
+
+            VBox panel = new VBox();
+            panel.getStyleClass().add("sidePanel");
+            panel.getChildren().addAll(label, slider, stepBtns, openBtn, homeScreenBtn);
+
+            ColumnConstraints col1 = new ColumnConstraints();
+            col1.setPercentWidth(80);
+            ColumnConstraints col2 = new ColumnConstraints();
+            col2.setPercentWidth(20);
+            getColumnConstraints().addAll(col1, col2);
+
+            add(boardView, 0, 0);
+            add(panel, 1, 0);
+        }
+
+        private void open() {
+            javafx.stage.FileChooser chooser = new javafx.stage.FileChooser();
+            chooser.getExtensionFilters().add(new javafx.stage.FileChooser.ExtensionFilter("SGF game records", "*.sgf"));
+            java.io.File file = chooser.showOpenDialog(getScene().getWindow());
+            if (file == null)
+                return;
+
+            label.setText("Loading " + file.getName());
+            java.util.concurrent.CompletableFuture.supplyAsync(() -> {         // parse and replay off the FX thread
+                try (java.io.Reader in = java.nio.file.Files.newBufferedReader(file.toPath(), java.nio.charset.StandardCharsets.ISO_8859_1)) {
+                    return GameTimeline.build(new sample.Model.Record.SgfReader(in).read());
+                } catch (java.io.IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            }).whenComplete((loaded, error) -> javafx.application.Platform.runLater(() -> {
+                if (error != null) {
+                    label.setText("Could not read " + file.getName());
+                    return;
+                }
+                timeline = loaded;
+                slider.setMax(loaded.length());
+                slider.setValue(loaded.length());
+                seek(loaded.length());
+            }));
+        }
+
+        private void seek(int move) {
+            if (timeline == null)
+                return;
+            GameSnapshot position = timeline.positionAt(move);
+            boardView.show(position);
+            label.setText("Move " + position.getMoveNumber() + " / " + timeline.length()
+                          + "\nP1: " + position.getScore(0) + "\nP2: " + position.getScore(1));
         }
     }
 
     class SidePanel extends VBox {
         private Label label;
+        private Button undoBtn, redoBtn;
 
          SidePanel() {
             getStyleClass().add("sidePanel");
@@ -190,32 +438,46 @@ public class Main extends Application {
 
             Button passTurnBtn = new Button("Pass turn");
             passTurnBtn.setOnAction(e -> {
-                game.passTurn();
-                gameView.updateGamePlayScreen();
+                engine.passTurn();
             });
 
+            undoBtn = new Button("Undo");
+            undoBtn.setOnAction(e -> engine.undo());
+
+            redoBtn = new Button("Redo");
+            redoBtn.setOnAction(e -> engine.redo());
+
             Button newGameBtn = new Button("Restart");
             newGameBtn.setOnAction(e -> {
-                game.restartGame();
-                gameView.updateGamePlayScreen();
+                engine.restartGame();
+            });
+
+            Button analysisBtn = new Button("Analysis: " + ANALYSIS_MODES[analysisMode]);
+            analysisBtn.setOnAction(e -> {
+                setAnalysisMode((analysisMode + 1) % ANALYSIS_MODES.length);
+                analysisBtn.setText("Analysis: " + ANALYSIS_MODES[analysisMode]);
             });
 
             label = new Label("");
             label.getStyleClass().add("sidePanelLabel");
             label.setPrefWidth(WIDTH * 0.20);
-            updateLabel();
+            update();
 
-            for(Button button : new Button[]{passTurnBtn, newGameBtn, homeScreenBtn, exitBtn}) {
+            for(Button button : new Button[]{passTurnBtn, undoBtn, redoBtn, newGameBtn, analysisBtn, homeScreenBtn, exitBtn}) {
                 button.setMinWidth(WIDTH * 0.20);
                 button.setMinHeight(HEIGHT * 0.06);
                 button.getStyleClass().add("sidePanelButton");
             }
 
-            getChildren().addAll(label, passTurnBtn, exitBtn, newGameBtn, homeScreenBtn);
+            getChildren().addAll(label, passTurnBtn, undoBtn, redoBtn, exitBtn, newGameBtn, analysisBtn, homeScreenBtn);
         }
 
-        private void updateLabel() {
-            label.setText(game.getCurrentPlayer().getName() + "'s turn\nP1: " + game.getPlayers()[0].getScore() + "\nP2: " + game.getPlayers()[1].getScore());
+        private void update() {
+            undoBtn.setDisable(!state.canUndo());
+            redoBtn.setDisable(!state.canRedo());
+            int lead = state.getEstimatedLead();
+            label.setText(state.getCurrentPlayerName() + "'s turn\nP1: " + state.getSnapshot().getScore(0) + "\nP2: " + state.getSnapshot().getScore(1)
+                          + "\nLead: " + (lead == 0 ? "even" : (lead > 0 ? "P1 +" : "P2 +") + Math.abs(lead)));
          }
     }
 
@@ -224,6 +486,7 @@ public class Main extends Application {
         private Label label;
         private Button newGameBtn;
         private Button settingsBtn;
+        private Button replayBtn;
         private Button exitBtn;
         private VBox newGameOptions;
 
@@ -242,24 +505,32 @@ public class Main extends Application {
             settingsBtn = new Button("Settings");
             settingsBtn.setOnAction(e -> {});
 
+            replayBtn = new Button("Replay");
+            replayBtn.setOnAction(e -> gameView.displayReplayScreen());
+
             exitBtn = new Button("Quit");
             exitBtn.setOnAction(e -> System.exit(0));
 
-            humanVsHumanScreen = new HumanVsHumanScreen();
-            humanVsComputerScreen = new HumanVsComputerScreen();
-
             Button vsHumanBtn = new Button("Human vs Human");
-            vsHumanBtn.setOnAction(e -> gameView.displayScreen(humanVsHumanScreen));
+            vsHumanBtn.setOnAction(e -> {
+                if (humanVsHumanScreen == null)
+                    humanVsHumanScreen = new HumanVsHumanScreen();
+                gameView.displayScreen(humanVsHumanScreen);
+            });
             vsHumanBtn.setMinWidth(WIDTH * .5);
 
             Button vsComputerBtn = new Button("Human vs Computer");
-            vsComputerBtn.setOnAction(e -> gameView.displayScreen(humanVsComputerScreen));
+            vsComputerBtn.setOnAction(e -> {
+                if (humanVsComputerScreen == null)
+                    humanVsComputerScreen = new HumanVsComputerScreen();
+                gameView.displayScreen(humanVsComputerScreen);
+            });
             vsComputerBtn.setMinWidth(WIDTH * .5);
 
             vsHumanBtn.setStyle("-fx-border-color: black;");            // TODO: use .css file
             vsComputerBtn.setStyle("-fx-border-color: transparent black black black;");
 
-            for(Button button : new Button[]{newGameBtn, settingsBtn, exitBtn}) {
+            for(Button button : new Button[]{newGameBtn, settingsBtn, replayBtn, exitBtn}) {
                 button.getStyleClass().add("homeScreenButton");
                 button.setMinWidth(WIDTH * .5);
             }
@@ -274,6 +545,7 @@ public class Main extends Application {
                 this.getChildren().add(label);
                 this.getChildren().add(newGameOptions);
 //              this.getChildren().add(settingsBtn);
+                this.getChildren().add(replayBtn);
                 this.getChildren().add(exitBtn);
             });
 
@@ -282,10 +554,11 @@ public class Main extends Application {
                 this.getChildren().add(label);
                 this.getChildren().add(newGameBtn);
 //              this.getChildren().add(settingsBtn);
+                this.getChildren().add(replayBtn);
                 this.getChildren().add(exitBtn);
             });
 
-            getChildren().addAll(label, newGameBtn, exitBtn);
+            getChildren().addAll(label, newGameBtn, replayBtn, exitBtn);
         }
     }
 
@@ -314,16 +587,15 @@ public class Main extends Application {
             HBox boardSizeBtns = new HBox();
             boardSizeBtns.getStyleClass().add("playBackButtons");
 
-            for (Integer i :  new int[]{9, 13, 19}) {
+            for (Integer i : BOARD_SIZES) {
                 Button button = new Button(i + "");
                 button.getStyleClass().add("boardSizeButtons");
-                button.setPrefWidth(WIDTH / 5);
-                button.setMinWidth(WIDTH / 5);
+                button.setPrefWidth(WIDTH / 7);
+                button.setMinWidth(WIDTH / 7);
 
                 final int boardSize = i;
                 button.setOnAction(e -> {
-                    game.setBoardSize( boardSize );
-                    gameView.updateGamePlayScreen();
+                    engine.setBoardSize( boardSize );
                 });
 
                 boardSizeBtns.getChildren().add(button);
@@ -334,8 +606,8 @@ public class Main extends Application {
             nameSelectGrid.add( new Label("Players"), 0, 0, 2, 1);
 
             int imageWidth = WIDTH / 5;
-            ImageView whiteImageView = new ImageView( new Image(Main.class.getResourceAsStream("../images/white.png"), imageWidth, imageWidth, true, true) );
-            ImageView blackImageView = new ImageView( new Image(Main.class.getResourceAsStream("../images/black.png"), imageWidth, imageWidth, true, true) );
+            ImageView whiteImageView = new ImageView( ImageCache.get("white.png", imageWidth, imageWidth, true) );
+            ImageView blackImageView = new ImageView( ImageCache.get("black.png", imageWidth, imageWidth, true) );
 
             TextField playerOneName = new TextField("Player 1");
             TextField playerTwoName = new TextField("Player 2");
@@ -379,16 +651,15 @@ public class Main extends Application {
             boardSizeBtns.setStyle("-fx-alignment: center;");
             boardSizeBtns.setSpacing(20.0);
 
-            for (Integer i :  new int[]{9, 13, 19}) {
+            for (Integer i : BOARD_SIZES) {
                 Button button = new Button(i + "");
                 button.getStyleClass().add("boardSizeButtons");
-                button.setPrefWidth(WIDTH / 5);
-                button.setMinWidth(WIDTH / 5);
+                button.setPrefWidth(WIDTH / 7);
+                button.setMinWidth(WIDTH / 7);
 
                 final int boardSize = i;
                 button.setOnAction(e -> {
-                    game.setBoardSize( boardSize );
-                    gameView.updateGamePlayScreen();
+                    engine.setBoardSize( boardSize );
                 });
 
                 boardSizeBtns.getChildren().add(button);
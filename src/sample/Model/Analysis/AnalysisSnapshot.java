@@ -0,0 +1,59 @@
+package sample.Model.Analysis;
+
+import sample.Model.GameSnapshot;
+
+public final class AnalysisSnapshot {   // immutable; what the analyzer had found when it was taken
+
+    private final GameSnapshot position;
+    private final int playouts;
+    private final float[] ownership;    // row * size + col -> -1 (white) .. 1 (black)
+    private final int[] visits;         // row * size + col -> playouts that started with that move
+    private final int[] wins;           // of those, won by the side to move
+    private final int maxVisits;
+
+    AnalysisSnapshot(GameSnapshot position, int playouts, float[] ownership, int[] visits, int[] wins) {
+        this.position = position;
+        this.playouts = playouts;
+        this.ownership = ownership;
+        this.visits = visits;
+        this.wins = wins;
+        int max = 0;
+        for (int v : visits)
+            max = Math.max(max, v);
+        this.maxVisits = max;
+    }
+
+    public GameSnapshot getPosition() {
+        return position;
+    }
+
+    public int size() {
+        return position.size();
+    }
+
+    public int getPlayouts() {
+        return playouts;
+    }
+
+    public float getOwnership(int row, int col) {
+        return ownership[row * size() + col];
+    }
+
+    public int getVisits(int row, int col) {
+        return visits[row * size() + col];
+    }
+
+    public int getMaxVisits() {
+        return maxVisits;
+    }
+
+    public float getWinRate(int row, int col) {         // for the side to move, 0.5 if the move was never tried
+        int v = getVisits(row, col);
+        return v == 0 ? 0.5f : wins[row * size() + col] / (float) v;
+    }
+
+    public float getCandidateProbability(int row, int col) {
+        return playouts == 0 ? 0 : getVisits(row, col) / (float) playouts;
+    }
+
+}
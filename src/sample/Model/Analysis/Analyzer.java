@@ -0,0 +1,181 @@
+package sample.Model.Analysis;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import javafx.scene.paint.Color;
+import sample.Model.Game;
+import sample.Model.GameSnapshot;
+
+// Background Monte Carlo analysis of one position. Worker threads play random games from it,
+// choosing the first move by UCB1 so the promising moves get most of the playouts, and add up
+// who ends up owning each point. Totals are kept in atomic arrays and every PUBLISH_EVERY
+// playouts an immutable AnalysisSnapshot is swapped into an AtomicReference, so neither the
+// workers nor a reader ever take a lock or wait on each other. A new position replaces the
+// current search; playouts still running on the old one land in its arrays and are dropped.
+// The reference holds the search along with its snapshot and workers publish by compareAndSet,
+// so a worker still on the old search can't put its result back after analyze() cleared it.
+public class Analyzer implements AutoCloseable {
+
+    private static final int PUBLISH_EVERY = 64;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Thread[] workers;
+    private final AtomicReference<Published> latest = new AtomicReference<>(new Published(null, null));
+    private volatile Search search;         // null while paused
+    private volatile boolean closed;
+
+    public Analyzer(int threads) {
+        workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "analysis-" + i);
+            workers[i].setDaemon(true);
+            workers[i].setPriority(Thread.MIN_PRIORITY);        // the game and the UI come first
+            workers[i].start();
+        }
+    }
+
+    public void analyze(GameSnapshot position) {                // starts over on the given position
+        if (search != null && search.position == position)
+            return;
+        Search next = new Search(position);
+        latest.set(new Published(next, null));
+        search = next;
+        for (Thread worker : workers)
+            LockSupport.unpark(worker);
+    }
+
+    public void pause() {
+        search = null;
+    }
+
+    public AnalysisSnapshot getSnapshot() {                     // latest published result, or null if none yet
+        return latest.get().snapshot;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        search = null;
+        for (Thread worker : workers)
+            LockSupport.unpark(worker);
+    }
+
+    private void work() {
+        Game game = new Game();
+        SplittableRandom random = new SplittableRandom();
+        int[] owners = new int[0];
+
+        while (!closed) {
+            Search current = search;
+            if (current == null) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+                continue;
+            }
+            if (owners.length != current.area)
+                owners = new int[current.area];
+
+            current.playout(game, random, owners);
+            int playouts = current.playouts.incrementAndGet();
+            if (playouts % PUBLISH_EVERY == 0)
+                publish(current, playouts);
+        }
+    }
+
+    private void publish(Search current, int playouts) {
+        AnalysisSnapshot snapshot = current.snapshot(playouts);
+        Published seen;
+        do {
+            seen = latest.get();
+            if (seen.search != current || seen.snapshot != null && seen.snapshot.getPlayouts() >= playouts)
+                return;                                         // superseded, or another worker got further
+        } while (!latest.compareAndSet(seen, new Published(current, snapshot)));
+    }
+
+    private static final class Published {      // a search and the last snapshot taken of it, swapped as one
+
+        final Search search;
+        final AnalysisSnapshot snapshot;        // null until its first publish
+
+        Published(Search search, AnalysisSnapshot snapshot) {
+            this.search = search;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private static final class Search {
+
+        final GameSnapshot position;
+        final int size, area;
+        final AtomicInteger playouts = new AtomicInteger();
+        final AtomicIntegerArray ownership;     // black owned minus white owned, by point
+        final AtomicIntegerArray visits;        // by first move
+        final AtomicIntegerArray wins;          // by first move, for the side to move
+
+        Search(GameSnapshot position) {
+            this.position = position;
+            this.size = position.size();
+            this.area = size * size;
+            ownership = new AtomicIntegerArray(area);
+            visits = new AtomicIntegerArray(area);
+            wins = new AtomicIntegerArray(area);
+        }
+
+        void playout(Game game, SplittableRandom random, int[] owners) {
+            game.restore(position);
+            Color toMove = game.getCurrentPlayer().getColor();
+
+            int first = chooseFirstMove(game, random, toMove);
+            if (first >= 0)
+                game.playerMove(first / size, first % size);
+            game.nextTurn();
+            Playouts.playOut(game, random, first < 0 ? 1 : 0);
+
+            int lead = Playouts.countOwners(game, owners);
+            for (int p = 0; p < area; p++)
+                if (owners[p] != 0)
+                    ownership.addAndGet(p, owners[p]);
+            if (first >= 0) {
+                visits.incrementAndGet(first);
+                if (toMove == Color.BLACK ? lead > 0 : lead < 0)
+                    wins.incrementAndGet(first);
+            }
+        }
+
+        private int chooseFirstMove(Game game, SplittableRandom random, Color color) {
+            double logTotal = Math.log(Math.max(1, playouts.get()));
+            int start = random.nextInt(area), best = -1;
+            double bestScore = -1;
+
+            for (int k = 0; k < area; k++) {
+                int p = (start + k) % area;
+                if (!Playouts.isCandidate(game, p, color) || !game.isLegalMove(p / size, p % size))
+                    continue;
+                int v = visits.get(p);
+                if (v == 0)
+                    return p;                                       // try everything once
+                double score = wins.get(p) / (double) v + Math.sqrt(2 * logTotal / v);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = p;
+                }
+            }
+            return best;
+        }
+
+        AnalysisSnapshot snapshot(int playouts) {
+            float[] owned = new float[area];
+            int[] visited = new int[area], won = new int[area];
+            for (int p = 0; p < area; p++) {
+                owned[p] = ownership.get(p) / (float) playouts;
+                visited[p] = visits.get(p);
+                won[p] = wins.get(p);
+            }
+            return new AnalysisSnapshot(position, playouts, owned, visited, won);
+        }
+    }
+
+}
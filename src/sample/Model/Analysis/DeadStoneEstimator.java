@@ -0,0 +1,112 @@
+package sample.Model.Analysis;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import sample.Model.Game;
+import sample.Model.GameSnapshot;
+
+// Finds the dead stones of a finished game. Random games are played out from the final position
+// in parallel and the owner of every point at the end is added up; a chain whose points the
+// opponent owns on average by more than DEAD_MARGIN is dead. Random playouts are noisy (even a
+// safe wall is lost now and then, and a hopeless invader lives now and then), so the margin is
+// small, but a chain near 0, as in seki or a fight the playouts can't settle, is left alive:
+// taking live stones off as prisoners is worse than leaving a dead one on the board.
+// Playout i is seeded from the position and i, so the same position gives the same answer on
+// any number of threads as long as all the playouts finish; the time budget only stops the
+// search early on a machine too slow for the playout count.
+public class DeadStoneEstimator {
+
+    private static final float DEAD_MARGIN = 0.2f;
+
+    private final int playouts;
+    private final long budgetNanos;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Game> games = ThreadLocal.withInitial(Game::new);
+
+    public DeadStoneEstimator(int playouts, long budgetMillis, int threads) {
+        this.playouts = playouts;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    // By point: +1 always black's at the end, -1 always white's, 0 neutral or contested.
+    public float[] ownership(GameSnapshot position) {
+        int area = position.size() * position.size();
+        long seed = hash(position), deadline = System.nanoTime() + budgetNanos;
+        AtomicIntegerArray owned = new AtomicIntegerArray(area);
+        AtomicInteger played = new AtomicInteger();
+        ThreadLocal<int[]> owners = ThreadLocal.withInitial(() -> new int[area]);
+
+        pool.submit(() -> IntStream.range(0, playouts).parallel().forEach(i -> {
+            if (System.nanoTime() > deadline)
+                return;
+            Game game = games.get();
+            game.restore(position);
+            Playouts.playOut(game, new SplittableRandom(seed + i), 0);
+            int[] counted = owners.get();
+            Playouts.countOwners(game, counted);
+            for (int p = 0; p < area; p++)
+                if (counted[p] != 0)
+                    owned.addAndGet(p, counted[p]);
+            played.incrementAndGet();
+        })).join();
+
+        float[] ownership = new float[area];
+        int n = Math.max(1, played.get());
+        for (int p = 0; p < area; p++)
+            ownership[p] = owned.get(p) / (float) n;
+        return ownership;
+    }
+
+    // By point: true for every stone of a dead chain.
+    public boolean[] deadStones(GameSnapshot position) {
+        float[] ownership = ownership(position);
+        int size = position.size(), area = size * size;
+        boolean[] dead = new boolean[area], seen = new boolean[area];
+        int[] chain = new int[area];
+
+        for (int start = 0; start < area; start++) {
+            byte color = position.get(start / size, start % size);
+            if (color == GameSnapshot.EMPTY || seen[start])
+                continue;
+            int stones = 0;
+            float owned = 0;
+            chain[stones++] = start;
+            seen[start] = true;
+            for (int k = 0; k < stones; k++) {
+                int p = chain[k], row = p / size, col = p % size;
+                owned += color == GameSnapshot.BLACK ? ownership[p] : -ownership[p];
+                if (row > 0)        stones = visit(position, color, p - size, seen, chain, stones);
+                if (row < size - 1) stones = visit(position, color, p + size, seen, chain, stones);
+                if (col > 0)        stones = visit(position, color, p - 1, seen, chain, stones);
+                if (col < size - 1) stones = visit(position, color, p + 1, seen, chain, stones);
+            }
+            if (owned < -DEAD_MARGIN * stones)
+                for (int k = 0; k < stones; k++)
+                    dead[chain[k]] = true;
+        }
+        return dead;
+    }
+
+    private static int visit(GameSnapshot position, byte color, int p, boolean[] seen, int[] chain, int stones) {
+        int size = position.size();
+        if (!seen[p] && position.get(p / size, p % size) == color) {
+            seen[p] = true;
+            chain[stones++] = p;
+        }
+        return stones;
+    }
+
+    private static long hash(GameSnapshot position) {
+        long h = position.getTurn();
+        for (int i = 0; i < position.size(); i++)
+            for (int j = 0; j < position.size(); j++)
+                h = h * 31 + position.get(i, j);
+        return h;
+    }
+
+}
@@ -0,0 +1,77 @@
+package sample.Model.Analysis;
+import java.util.SplittableRandom;
+
+import javafx.scene.paint.Color;
+import sample.Model.Game;
+import sample.Model.Stone;
+
+// The random games Analyzer and DeadStoneEstimator play to the end: each side plays a random
+// legal move that doesn't fill one of its own eyes, and passes when it has none. Passes only
+// advance the turn (nextTurn, not passTurn), so a playout never scores the game it is played on.
+final class Playouts {
+
+    private Playouts() {
+    }
+
+    static void playOut(Game game, SplittableRandom random, int passes) {      // passes: in a row before the playout starts
+        int size = game.getBoardSize();
+        for (int moves = 0; passes < 2 && moves < size * size * 3; moves++) {   // the cap only matters for endless ko fights
+            int p = randomMove(game, random, game.getCurrentPlayer().getColor());
+            if (p < 0) {
+                passes++;
+            } else {
+                passes = 0;
+                game.playerMove(p / size, p % size);
+            }
+            game.nextTurn();
+        }
+    }
+
+    static int randomMove(Game game, SplittableRandom random, Color color) {    // row * size + col, or -1 to pass
+        int area = game.getBoardSize() * game.getBoardSize(), start = random.nextInt(area);
+        for (int k = 0; k < area; k++) {
+            int p = (start + k) % area;
+            if (isCandidate(game, p, color) && game.isValidMove(p / game.getBoardSize(), p % game.getBoardSize()))
+                return p;
+        }
+        return -1;
+    }
+
+    static boolean isCandidate(Game game, int p, Color color) {   // empty and not one of the player's own eyes
+        Stone[][] board = game.getBoard().getBoard();
+        int size = board.length, row = p / size, col = p % size;
+        if (board[row][col] != null)
+            return false;
+        return !(isColor(board, row - 1, col, color) && isColor(board, row + 1, col, color)
+                 && isColor(board, row, col - 1, color) && isColor(board, row, col + 1, color));
+    }
+
+    static int countOwners(Game game, int[] owners) {             // area score: +1 black, -1 white, 0 neutral; returns the sum
+        Stone[][] board = game.getBoard().getBoard();
+        int size = board.length, lead = 0;
+        for (int p = 0; p < size * size; p++) {
+            int row = p / size, col = p % size;
+            int owner;
+            if (board[row][col] != null)
+                owner = board[row][col].getColor() == Color.BLACK ? 1 : -1;
+            else if (isColor(board, row - 1, col, Color.BLACK) && isColor(board, row + 1, col, Color.BLACK)
+                     && isColor(board, row, col - 1, Color.BLACK) && isColor(board, row, col + 1, Color.BLACK))
+                owner = 1;
+            else if (isColor(board, row - 1, col, Color.WHITE) && isColor(board, row + 1, col, Color.WHITE)
+                     && isColor(board, row, col - 1, Color.WHITE) && isColor(board, row, col + 1, Color.WHITE))
+                owner = -1;
+            else
+                owner = 0;
+            owners[p] = owner;
+            lead += owner;
+        }
+        return lead;
+    }
+
+    private static boolean isColor(Stone[][] board, int row, int col, Color color) {     // off the board counts as any colour
+        int size = board.length;
+        return row < 0 || col < 0 || row >= size || col >= size
+               || (board[row][col] != null && board[row][col].getColor() == color);
+    }
+
+}
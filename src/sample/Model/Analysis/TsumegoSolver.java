@@ -0,0 +1,459 @@
+package sample.Model.Analysis;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import javafx.scene.paint.Color;
+import sample.Model.Board;
+import sample.Model.Stone;
+
+// Decides whether a group can be killed, with a given side to move, when play is limited to a
+// region of empty points around it (the inside of the surrounding wall, typically). Depth-first
+// proof-number search (df-pn): the attacker wins by capturing the target stone; the defender
+// wins by making two eyes of the target's chain, or when both sides pass in a row. Positions are
+// kept in a transposition table keyed by Zobrist hash, so lines that transpose are solved once.
+//
+// The search plays on a compact copy of the board with make/unmake, so it allocates nothing per
+// node. A move may not recreate a position earlier in the line (path superko); as usual for
+// df-pn, results stored under that rule are reused along other paths, which can misjudge some
+// positions with ko. Not thread-safe; one solver per thread.
+public class TsumegoSolver {
+
+    public enum Result { KILLED, ALIVE, UNKNOWN }
+
+    private static final int INF = 1 << 28;                     // proof and disproof numbers saturate here
+    private static final byte EMPTY = 0, BLACK = 1, WHITE = 2;
+    private static final long ATTACKER_TO_MOVE = 0x9E3779B97F4A7C15L, ONE_PASS = 0xC2B2AE3D27D4EB4FL, TWO_PASSES = 0x165667B19E3779F9L;
+
+    private final long[] keys;                                  // transposition table, open addressing, always replace
+    private final int[] phis, deltas;
+    private final int[] generations;                            // entries from earlier solves are ignored, not cleared
+    private final int mask;
+    private int generation;
+
+    private int size, area, target, maxNodes, nodes;
+    private byte defender, attacker;
+    private byte[] cells;
+    private boolean[] region;
+    private long[] zobrist;                                     // by (colour - 1) * area + point
+    private long hash;                                          // of the stones alone
+    private long[] path = new long[64];                         // position hashes along the current line, for superko
+    private int depth;
+    private int[] undo = new int[256];                          // per move: captured points, their number, the point played
+    private int undoTop;
+    private int[] mark, eyeMark, stack;
+    private int markStamp, eyeStamp;
+    private int[][] childMoves = new int[64][];                 // by depth: the moves tried from that node
+    private long[][] childKeys = new long[64][];
+    private int bestMove = Board.NONE;
+
+    public TsumegoSolver(int tableBits) {                       // 2^tableBits entries of 16 bytes
+        keys = new long[1 << tableBits];
+        phis = new int[1 << tableBits];
+        deltas = new int[1 << tableBits];
+        generations = new int[1 << tableBits];
+        mask = (1 << tableBits) - 1;
+    }
+
+    // The points reachable from the group at (row, col) through empty points and its own stones,
+    // no further than margin from the group's bounding box: the inside of the wall around a
+    // corner or side group. The group's stones are included so their points can be played again
+    // once captured.
+    public static boolean[] regionAround(Board board, int row, int col, int margin) {
+        int size = board.size();
+        Stone[][] stones = board.getBoard();
+        Color own = stones[row][col].getColor();
+        boolean[] group = new boolean[size * size], seen = new boolean[size * size], region = new boolean[size * size];
+        int[] stack = new int[size * size];
+        int top = 0, minRow = row, maxRow = row, minCol = col, maxCol = col;
+
+        stack[top++] = row * size + col;                        // the group's bounding box first
+        group[row * size + col] = true;
+        while (top > 0) {
+            int p = stack[--top];
+            minRow = Math.min(minRow, p / size); maxRow = Math.max(maxRow, p / size);
+            minCol = Math.min(minCol, p % size); maxCol = Math.max(maxCol, p % size);
+            for (int q : neighbors(p, size))
+                if (!group[q] && stones[q / size][q % size] != null && stones[q / size][q % size].getColor() == own) {
+                    group[q] = true;
+                    stack[top++] = q;
+                }
+        }
+
+        stack[top++] = row * size + col;
+        seen[row * size + col] = region[row * size + col] = true;
+        while (top > 0) {
+            int p = stack[--top];
+            for (int q : neighbors(p, size)) {
+                int r = q / size, c = q % size;
+                Stone stone = stones[r][c];
+                if (seen[q] || r < minRow - margin || r > maxRow + margin || c < minCol - margin || c > maxCol + margin
+                    || (stone != null && stone.getColor() != own))
+                    continue;
+                seen[q] = true;
+                region[q] = true;
+                stack[top++] = q;
+            }
+        }
+        return region;
+    }
+
+    // Whether the chain at (row, col) dies with toMove to play and moves limited to region.
+    // Gives UNKNOWN if maxNodes positions are searched without an answer.
+    public Result solve(Board board, int row, int col, boolean[] region, Color toMove, int maxNodes) {
+        load(board, row * board.size() + col, region);
+        this.maxNodes = maxNodes;
+        nodes = 0;
+        bestMove = Board.NONE;
+        generation++;
+
+        boolean attackerToMove = toCell(toMove) == attacker;
+        depth = 0;
+        path[0] = hash;
+        int terminal = evaluate();
+        if (terminal != EMPTY)
+            return terminal == attacker ? Result.KILLED : Result.ALIVE;
+
+        long key = key(attackerToMove, 0);
+        mid(attackerToMove, 0, key, INF, INF);
+        int phi = phi(key), delta = delta(key);
+        if (phi != 0 && delta != 0)
+            return Result.UNKNOWN;
+
+        if (phi == 0) {                                         // the side to move wins; remember how
+            int n = generate(attackerToMove, 0);
+            for (int i = 0; i < n; i++)
+                if (lookup(childKeys[0][i]) >= 0 && delta(childKeys[0][i]) == 0)
+                    bestMove = childMoves[0][i];
+        }
+        return (phi == 0) == attackerToMove ? Result.KILLED : Result.ALIVE;
+    }
+
+    public int getBestMove() {          // a winning first move of the last solve (row * size + col or Board.PASS), or Board.NONE if the side to move loses
+        return bestMove;
+    }
+
+    public int getNodes() {             // positions searched by the last solve
+        return nodes;
+    }
+
+    private void load(Board board, int target, boolean[] region) {
+        int size = board.size();
+        if (size != this.size) {
+            this.size = size;
+            area = size * size;
+            cells = new byte[area];
+            mark = new int[area];
+            eyeMark = new int[area];
+            stack = new int[area];
+            zobrist = new long[2 * area];
+            SplittableRandom random = new SplittableRandom(size);
+            for (int i = 0; i < zobrist.length; i++)
+                zobrist[i] = random.nextLong();
+            childMoves = new int[64][];
+            childKeys = new long[64][];
+        }
+        Stone[][] stones = board.getBoard();
+        hash = 0;
+        for (int p = 0; p < area; p++) {
+            Stone stone = stones[p / size][p % size];
+            cells[p] = stone == null ? EMPTY : toCell(stone.getColor());
+            if (cells[p] != EMPTY)
+                hash ^= zobrist[(cells[p] - 1) * area + p];
+        }
+        if (cells[target] == EMPTY)
+            throw new IllegalArgumentException("no stone at the target point");
+        this.target = target;
+        this.region = region;
+        defender = cells[target];
+        attacker = defender == BLACK ? WHITE : BLACK;
+        undoTop = 0;
+    }
+
+    // df-pn in phi/delta form: phi is the proof number for the side to move, delta the disproof
+    // number. passes: how many passes in a row led here.
+    private void mid(boolean attackerToMove, int passes, long key, int thPhi, int thDelta) {
+        nodes++;
+        int winner = passes == 2 ? defender : evaluate();       // solved children are stored as such, but the table may have lost them
+        if (winner != EMPTY) {
+            storeWinner(key, attackerToMove, winner);
+            return;
+        }
+        int n = generate(attackerToMove, passes);
+        int[] moves = childMoves[depth];
+        long[] children = childKeys[depth];
+
+        while (true) {
+            int phi = INF, delta = 0, best = -1, bestDelta = INF, secondDelta = INF, bestPhi = 0;
+            for (int i = 0; i < n; i++) {
+                int at = lookup(children[i]);
+                int childPhi = at < 0 ? 1 : phis[at], childDelta = at < 0 ? 1 : deltas[at];
+                phi = Math.min(phi, childDelta);
+                delta = Math.min(INF, delta + childPhi);
+                if (childDelta < bestDelta) {
+                    secondDelta = bestDelta;
+                    bestDelta = childDelta;
+                    bestPhi = childPhi;
+                    best = i;
+                } else if (childDelta < secondDelta) {
+                    secondDelta = childDelta;
+                }
+            }
+            if (phi >= thPhi || delta >= thDelta || nodes >= maxNodes) {
+                store(key, phi, delta);
+                return;
+            }
+
+            int childThPhi = Math.min(INF, thDelta - delta + bestPhi);
+            int childThDelta = Math.min(thPhi, secondDelta >= INF / 2 ? INF : secondDelta + 1 + secondDelta / 4);   // the 1+epsilon trick: fewer switches between siblings
+            int move = moves[best];
+            if (move == Board.PASS) {
+                descend(!attackerToMove, passes + 1, children[best], childThPhi, childThDelta);
+            } else {
+                make(move, attackerToMove ? attacker : defender);
+                descend(!attackerToMove, 0, children[best], childThPhi, childThDelta);
+                unmake();
+            }
+        }
+    }
+
+    private void descend(boolean attackerToMove, int passes, long key, int thPhi, int thDelta) {
+        depth++;
+        if (depth >= path.length)
+            path = Arrays.copyOf(path, depth * 2);
+        path[depth] = hash;
+        mid(attackerToMove, passes, key, thPhi, thDelta);
+        depth--;
+    }
+
+    // The legal moves from the current position into childMoves[depth], with their keys. Children
+    // that end the problem are stored as solved right away.
+    private int generate(boolean attackerToMove, int passes) {
+        if (depth >= childMoves.length) {
+            childMoves = Arrays.copyOf(childMoves, depth * 2);
+            childKeys = Arrays.copyOf(childKeys, depth * 2);
+        }
+        if (childMoves[depth] == null) {
+            childMoves[depth] = new int[area + 1];
+            childKeys[depth] = new long[area + 1];
+        }
+        int[] moves = childMoves[depth];
+        long[] children = childKeys[depth];
+        byte color = attackerToMove ? attacker : defender;
+        int n = 0;
+
+        for (int p = 0; p < area; p++) {
+            if (!region[p] || cells[p] != EMPTY || !make(p, color))
+                continue;
+            long key = key(!attackerToMove, 0);
+            int winner = evaluate();
+            if (winner != EMPTY)
+                storeWinner(key, !attackerToMove, winner);
+            unmake();
+            moves[n] = p;
+            children[n++] = key;
+        }
+
+        long key = key(!attackerToMove, passes + 1);            // passing is always allowed; a second pass ends it
+        if (passes == 1)
+            storeWinner(key, !attackerToMove, defender);
+        moves[n] = Board.PASS;
+        children[n++] = key;
+        return n;
+    }
+
+    private void storeWinner(long key, boolean attackerToMove, int winner) {     // for the side to move in that position
+        boolean moverWins = (winner == attacker) == attackerToMove;
+        store(key, moverWins ? 0 : INF, moverWins ? INF : 0);
+    }
+
+    private int evaluate() {            // the winner if the problem is over, EMPTY if not
+        if (cells[target] != defender)
+            return attacker;
+        return hasTwoEyes() ? defender : EMPTY;
+    }
+
+    private boolean hasTwoEyes() {      // two empty points next to nothing but the target's chain
+        markStamp++;
+        eyeStamp++;
+        int n = 0, eyes = 0;                                    // the chain is collected in stack[0, n)
+        stack[n++] = target;
+        mark[target] = markStamp;
+        for (int i = 0; i < n; i++) {
+            int p = stack[i];
+            for (int d = 0; d < 4; d++) {
+                int q = neighbor(p, d);
+                if (q >= 0 && cells[q] == defender && mark[q] != markStamp) {
+                    mark[q] = markStamp;
+                    stack[n++] = q;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int d = 0; d < 4; d++) {
+                int e = neighbor(stack[i], d);
+                if (e < 0 || cells[e] != EMPTY || eyeMark[e] == eyeStamp)
+                    continue;
+                eyeMark[e] = eyeStamp;
+                boolean eye = true;
+                for (int k = 0; k < 4 && eye; k++) {
+                    int f = neighbor(e, k);
+                    eye = f < 0 || mark[f] == markStamp;
+                }
+                if (eye && ++eyes >= 2)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean make(int p, byte color) {       // false, with the position unchanged, if the move is illegal
+        byte enemy = color == BLACK ? WHITE : BLACK;
+        cells[p] = color;
+        hash ^= zobrist[(color - 1) * area + p];
+        int start = undoTop;
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q >= 0 && cells[q] == enemy && !hasLiberty(q))
+                removeChain(q, enemy);
+        }
+        int captured = undoTop - start;
+
+        boolean legal = captured > 0 ? !repeats() : hasLiberty(p);    // without a capture only suicide is illegal
+        if (!legal) {
+            while (undoTop > start) {
+                int q = undo[--undoTop];
+                cells[q] = enemy;
+                hash ^= zobrist[(enemy - 1) * area + q];
+            }
+            cells[p] = EMPTY;
+            hash ^= zobrist[(color - 1) * area + p];
+            return false;
+        }
+        push(captured);
+        push(p);
+        return true;
+    }
+
+    private void unmake() {
+        int p = undo[--undoTop], captured = undo[--undoTop];
+        byte color = cells[p], enemy = color == BLACK ? WHITE : BLACK;
+        for (int i = 0; i < captured; i++) {
+            int q = undo[--undoTop];
+            cells[q] = enemy;
+            hash ^= zobrist[(enemy - 1) * area + q];
+        }
+        cells[p] = EMPTY;
+        hash ^= zobrist[(color - 1) * area + p];
+    }
+
+    private boolean repeats() {
+        for (int i = 0; i <= depth; i++)
+            if (path[i] == hash)
+                return true;
+        return false;
+    }
+
+    private boolean hasLiberty(int start) {
+        markStamp++;
+        byte color = cells[start];
+        int top = 0;
+        stack[top++] = start;
+        mark[start] = markStamp;
+        while (top > 0) {
+            int p = stack[--top];
+            for (int d = 0; d < 4; d++) {
+                int q = neighbor(p, d);
+                if (q < 0 || mark[q] == markStamp)
+                    continue;
+                if (cells[q] == EMPTY)
+                    return true;
+                if (cells[q] == color) {
+                    mark[q] = markStamp;
+                    stack[top++] = q;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void removeChain(int start, byte color) {  // pushes the removed points onto the undo stack
+        int top = 0;
+        stack[top++] = start;
+        cells[start] = EMPTY;
+        hash ^= zobrist[(color - 1) * area + start];
+        push(start);
+        while (top > 0) {
+            int p = stack[--top];
+            for (int d = 0; d < 4; d++) {
+                int q = neighbor(p, d);
+                if (q >= 0 && cells[q] == color) {
+                    cells[q] = EMPTY;
+                    hash ^= zobrist[(color - 1) * area + q];
+                    push(q);
+                    stack[top++] = q;
+                }
+            }
+        }
+    }
+
+    private void push(int value) {
+        if (undoTop == undo.length)
+            undo = Arrays.copyOf(undo, undo.length * 2);
+        undo[undoTop++] = value;
+    }
+
+    private long key(boolean attackerToMove, int passes) {
+        return hash ^ (attackerToMove ? ATTACKER_TO_MOVE : 0) ^ (passes == 1 ? ONE_PASS : passes == 2 ? TWO_PASSES : 0);
+    }
+
+    private int lookup(long key) {      // table index, or -1 if not stored
+        int at = index(key);
+        return keys[at] == key && generations[at] == generation ? at : -1;
+    }
+
+    private int phi(long key) {
+        int at = lookup(key);
+        return at < 0 ? 1 : phis[at];
+    }
+
+    private int delta(long key) {
+        int at = lookup(key);
+        return at < 0 ? 1 : deltas[at];
+    }
+
+    private void store(long key, int phi, int delta) {
+        int at = index(key);
+        keys[at] = key;
+        generations[at] = generation;
+        phis[at] = phi;
+        deltas[at] = delta;
+    }
+
+    private int index(long key) {
+        return (int) (key ^ (key >>> 29)) & mask;
+    }
+
+    private int neighbor(int p, int d) {        // N, E, S, W; -1 off the board
+        switch (d) {
+            case 0:  return p >= size ? p - size : -1;
+            case 1:  return p % size < size - 1 ? p + 1 : -1;
+            case 2:  return p < area - size ? p + size : -1;
+            default: return p % size > 0 ? p - 1 : -1;
+        }
+    }
+
+    private static int[] neighbors(int p, int size) {
+        int row = p / size, col = p % size, n = 0;
+        int[] out = new int[4];
+        if (row > 0)        out[n++] = p - size;
+        if (col < size - 1) out[n++] = p + 1;
+        if (row < size - 1) out[n++] = p + size;
+        if (col > 0)        out[n++] = p - 1;
+        return Arrays.copyOf(out, n);
+    }
+
+    private static byte toCell(Color color) {
+        return color == Color.BLACK ? BLACK : WHITE;
+    }
+
+}
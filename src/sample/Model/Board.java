@@ -2,97 +2,187 @@ package sample.Model;
 import java.util.*;
 
 import javafx.scene.paint.Color;
+import sample.Model.Metrics.EngineMetrics;
+import sample.Model.Profiling.*;
 import sample.Model.Utility.Pair;
 
+// Stones are kept in chains (connected stones of one colour) that are updated as stones come and
+// go, so checking a move, capturing and counting liberties look only at the chains next to a
+// point instead of scanning the board. Each chain keeps its pseudo-liberties, the number of
+// (stone, empty neighbour) pairs; an empty point next to two of its stones counts twice, but the
+// count is zero exactly when the chain has no liberties, which is all capture and suicide need.
+// Chains left without liberties by a placement are remembered until captureStones() takes them.
 public class Board {
 
+    public static final int PASS = -1;          // points are packed as row * size + col; PASS and NONE are on no board
+    public static final int NONE = -2;
+    private static final byte EMPTY = 0, BLACK = 1, WHITE = 2;
+
     private Stone[][] board;
+    private Stone[][] stones;                   // one reusable stone per point, so play and clearBoard() don't allocate
+    private final int size;
+    private final byte[] colors;                // row * size + col -> EMPTY / BLACK / WHITE
+    private final int[] chain;                  // by point: the chain's head point
+    private final int[] nextStone;              // by point: the next stone of its chain, circular
+    private final int[] chainSize;              // by head
+    private final int[] pseudoLiberties;        // by head
+    private final int[] pending;                // heads of chains with no liberties, not yet captured
+    private int numPending;
+    private final int[] members;                // scratch for removals and flood fills
+    private final int[] fill;
+    private final int[] fillStamp;
+    private int stamp;
+    private final int[] captured;
+    private int numCaptured;
+    private int groupSize;                      // of the stone placed by the last validate(), for ValidMoveEvent
 
     public Board(int size) {
+        this.size = size;
         board = new Stone[size][size];
-        //place empty stones on every position on the board
+        captured = new int[size * size];
+        stones = new Stone[size][size];
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                stones[i][j] = new Stone(null, 0, i, j, this);
+
+        colors = new byte[size * size];
+        chain = new int[size * size];
+        nextStone = new int[size * size];
+        chainSize = new int[size * size];
+        pseudoLiberties = new int[size * size];
+        pending = new int[size * size];
+        members = new int[size * size];
+        fill = new int[size * size];
+        fillStamp = new int[size * size];
     }
 
     public boolean isValidMove(int row, int col, Color color) {
+        ValidMoveEvent event = new ValidMoveEvent();
+        event.begin();
+        groupSize = 0;
+        boolean valid = validate(row, col, color);
+        event.end();
+        if (event.shouldCommit()) {
+            event.boardSize = size;
+            event.point = row * size + col;
+            event.valid = valid;
+            event.groupSize = groupSize;
+            event.position = Positions.encode(this);
+            event.commit();
+        }
+        return valid;
+    }
+
+    private boolean validate(int row, int col, Color color) {     // legal unless it's suicide; only the four neighbours are looked at
         if(!isValidLocation(row, col) || board[row][col] != null)
             return false;
 
+        int p = row * size + col;
+        byte own = toCell(color);
         boolean isValidMove = false;
-        placeStoneOnBoard(row, col, color);
-
-        if(Stone.getNumLiberties(board[row][col], new HashSet<>()) > 0)
-            isValidMove = true;
-        else {
-            Queue<Stone> q1 = new LinkedList<>();
-            Queue<Stone> q2 = new LinkedList<>();
-            Set<Stone> visited = new HashSet<>();
-
-            Stone newStone = board[row][col];
-            q1.add(newStone);
-            visited.add(newStone);
-
-            while (!q1.isEmpty()) {
-                Stone stone = q1.remove();
-                for (Stone adjacentStone : stone.getAdjacentStones()) {
-                    if (adjacentStone.getColor() != stone.getColor())
-                        q2.add(adjacentStone);
-                    else if (!visited.contains(adjacentStone)) {
-                        q1.add(adjacentStone);
-                        visited.add(adjacentStone);
-                    }
-                }
+        groupSize = 1;
+
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q < 0)
+                continue;
+            if (colors[q] == EMPTY) {
+                isValidMove = true;                                     // a liberty of its own
+                continue;
+            }
+            int head = chain[q];
+            if (seenBefore(p, d, head))
+                continue;
+            int libertiesAtP = adjacentStones(p, head);
+            if (colors[q] == own) {
+                groupSize += chainSize[head];
+                if (pseudoLiberties[head] > libertiesAtP)
+                    isValidMove = true;                                 // joins a chain with another liberty
+            } else if (pseudoLiberties[head] == libertiesAtP) {
+                isValidMove = true;                                     // takes the chain's last liberty, so captures it
             }
-
-            int numLiberties = 0;
-            for (Stone s : q2)
-                numLiberties += Stone.getNumLiberties(s, new HashSet<>());
-
-            if (numLiberties == 0)
-                isValidMove = true;
-
-            for (int i = 0; i < board.length; i++)                      // check if stone captured
-                for (int j = 0; j < board.length; j++)
-                    if(board[i][j] != null && board[i][j].getColor() != color && Stone.getNumLiberties(board[i][j], new HashSet<>()) == 0)
-                        isValidMove = true;
         }
+        return isValidMove || hasPendingCapture(own);                   // an uncaptured enemy chain makes any move a capture
+    }
 
-        removeStoneFromBoard(row, col);         // remove stone so board state not modified by isValidMove() method
-        return isValidMove;
+    public int singleCapture(int row, int col, Color color) {     // the point of the one stone this move would capture, or NONE
+        int p = row * size + col, point = NONE, total = 0;
+        byte own = toCell(color);
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q < 0 || colors[q] == EMPTY || colors[q] == own)
+                continue;
+            int head = chain[q];
+            if (!seenBefore(p, d, head) && pseudoLiberties[head] == adjacentStones(p, head)) {
+                total += chainSize[head];
+                point = head;
+            }
+        }
+        return total == 1 ? point : NONE;
     }
 
     public int captureStones(Color currPlayer) {
-        List<Pair<Integer, Integer>> stonesCaptured = new LinkedList<>();
-
-        for (int i = 0; i < board.length; i++)
-            for (int j = 0; j < board.length; j++)     // capture enemy stones
-                if (board[i][j] != null && board[i][j].getColor() != currPlayer && Stone.getNumLiberties(board[i][j], new HashSet<>()) == 0)
-                    stonesCaptured.add(new Pair<>(i, j));
+        CaptureEvent event = new CaptureEvent();
+        event.begin();
+        numCaptured = 0;
+        byte own = toCell(currPlayer);
+        int chainsChecked = numPending;
+
+        for (int n = 0; n < numPending; n++) {                      // capture enemy chains left without liberties
+            int head = pending[n];
+            if (isUncaptured(head) && colors[head] != own)
+                removeChain(head);
+        }
+        compactPending();                                           // own chains left without liberties stay pending
+
+        event.end();
+        if (event.shouldCommit()) {                                 // the position after the captures
+            event.boardSize = size;
+            event.stonesCaptured = numCaptured;
+            event.chainsChecked = chainsChecked;
+            event.position = Positions.encode(this);
+            event.commit();
+        }
+        if (EngineMetrics.ENABLED) EngineMetrics.stonesCaptured(numCaptured);
+        return numCaptured;
+    }
 
-        for (Pair p : stonesCaptured)
-            removeStoneFromBoard( (int) p.getKey(), (int) p.getValue() );
+    public int getNumCaptured() {                  // stones removed by the last captureStones() call
+        return numCaptured;
+    }
 
-        return stonesCaptured.size();
+    public int getCaptured(int n) {                // row * size + col of the n-th of them
+        return captured[n];
     }
 
     public int countCapturedStones(Color currPlayer) {
         int n = 0;
-        for (int i = 0; i < board.length; i++)
-            for (int j = 0; j < board.length; j++)
-                if (board[i][j] != null && board[i][j].getColor() != currPlayer && Stone.getNumLiberties(board[i][j], new HashSet<>()) == 0)
-                    n++;
+        for (int i = 0; i < numPending; i++)
+            if (isUncaptured(pending[i]) && colors[pending[i]] != toCell(currPlayer))
+                n += chainSize[pending[i]];
         return n;
     }
 
-    public Pair<Integer, Integer> captureSingleStone(Color currPlayer) {
-        for (int i = 0; i < board.length; i++)
-            for (int j = 0; j < board.length; j++)     // capture enemy stones
-                if (board[i][j] != null && board[i][j].getColor() != currPlayer && Stone.getNumLiberties(board[i][j], new HashSet<>()) == 0)
-                    return new Pair<>(i, j);
-        throw new RuntimeException("Oops");
+    public int captureSingleStone(Color currPlayer) {       // a stone of an enemy chain the last placement took, or NONE
+        for (int i = 0; i < numPending; i++)
+            if (isUncaptured(pending[i]) && colors[pending[i]] != toCell(currPlayer))
+                return pending[i];
+        return NONE;
+    }
+
+    public int getChainSize(int row, int col) {     // stones connected to the one at (row, col), 0 if empty
+        int p = row * size + col;
+        return colors[p] == EMPTY ? 0 : chainSize[chain[p]];
+    }
+
+    public boolean hasLiberties(int row, int col) {
+        int p = row * size + col;
+        return colors[p] != EMPTY && pseudoLiberties[chain[p]] > 0;
     }
 
     private Stone createStone(int row, int col, Color color) {
         int maxLiberties;
+        Stone stone = stones[row][col];
 
         if( (row == 0 && col == 0) || (row == board.length - 1 && col == board.length - 1) || (row == 0 && col == board.length - 1) || (row == board.length - 1 && col == 0))
             maxLiberties = 2;   // corner
@@ -101,57 +191,206 @@ public class Board {
         else
             maxLiberties = 4;
 
-        return new Stone(color, maxLiberties);
+        stone.reset(color, maxLiberties);
+        return stone;
     }
 
     public void placeStoneOnBoard(int row, int col, Color color) {  // preconditions: move is valid
+        placeStone(row, col, color);
+    }
+
+    public Stone placeStone(int row, int col, Color color) {  // preconditions: move is valid
+        if (board[row][col] != null)
+            removeStoneFromBoard(row, col);                         // the stone object is about to be reused
         Stone newStone = createStone(row, col, color);
         board[row][col] = newStone;
 
-        for (Stone adjacentStone : getAdjacentStonesNESW(row, col)) {
-            if (adjacentStone != null) {
-                newStone.getAdjacentStones().add(adjacentStone);
-                adjacentStone.getAdjacentStones().add(newStone);
-            }
+        int p = row * size + col;
+        byte own = toCell(color);
+        colors[p] = own;
+        chain[p] = p;
+        nextStone[p] = p;
+        chainSize[p] = 1;
+        pseudoLiberties[p] = 0;
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q < 0)
+                continue;
+            if (colors[q] == EMPTY)
+                pseudoLiberties[p]++;
+            else
+                pseudoLiberties[chain[q]]--;                        // p was one of its liberties
+        }
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q >= 0 && colors[q] == own && chain[q] != chain[p])
+                merge(chain[p], chain[q]);
         }
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q >= 0 && colors[q] != EMPTY && colors[q] != own && pseudoLiberties[chain[q]] == 0)
+                addPending(chain[q]);
+        }
+        if (pseudoLiberties[chain[p]] == 0)
+            addPending(chain[p]);
+        return newStone;
+    }
+
+    public void removeStoneFromBoard(int row, int col) {      // the rest of its chain may fall apart, so it is rebuilt
+        int p = row * size + col;
+        if (colors[p] == EMPTY) {
+            board[row][col] = null;
+            return;
+        }
+        board[row][col] = null;
+
+        byte own = colors[p];
+        int n = 0;
+        for (int x = nextStone[p]; x != p; x = nextStone[x])
+            members[n++] = x;
+        colors[p] = EMPTY;
+
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q >= 0 && colors[q] != EMPTY && colors[q] != own)
+                pseudoLiberties[chain[q]]++;
+        }
+        for (int i = 0; i < n; i++)
+            chain[members[i]] = -1;
+        for (int i = 0; i < n; i++)
+            if (chain[members[i]] == -1)
+                rebuildChain(members[i]);
     }
-    public Stone placeStone(int row, int col, Color color) {  // preconditions: move is valid
-        Stone newStone = createStone(row, col, color);
-        board[row][col] = newStone;
 
-        for (Stone adjacentStone : getAdjacentStonesNESW(row, col)) {
-            if (adjacentStone != null) {
-                newStone.getAdjacentStones().add(adjacentStone);
-                adjacentStone.getAdjacentStones().add(newStone);
+    private void removeChain(int head) {                    // a capture: every stone goes, the chains around gain liberties
+        int x = head;
+        do {
+            captured[numCaptured++] = x;
+            x = nextStone[x];
+        } while (x != head);
+
+        for (int i = numCaptured - chainSize[head]; i < numCaptured; i++) {
+            int p = captured[i];
+            for (int d = 0; d < 4; d++) {
+                int q = neighbor(p, d);
+                if (q >= 0 && colors[q] != EMPTY && chain[q] != head)
+                    pseudoLiberties[chain[q]]++;
             }
         }
-        return newStone;
+        for (int i = numCaptured - chainSize[head]; i < numCaptured; i++) {
+            int p = captured[i];
+            board[p / size][p % size] = null;
+            colors[p] = EMPTY;
+        }
     }
 
-    public void removeStoneFromBoard(int row, int col) {
-        for (Stone adjacentStone : getAdjacentStonesNESW(row, col)) {
-            if (adjacentStone != null) {
-                board[row][col].getAdjacentStones().remove(adjacentStone);
-                adjacentStone.getAdjacentStones().remove(board[row][col]);
+    private void rebuildChain(int start) {                  // flood the stones of start's colour that lost their chain
+        byte own = colors[start];
+        int top = 0, last = start;
+        fill[top++] = start;
+        chain[start] = start;
+        nextStone[start] = start;
+        chainSize[start] = 0;
+        pseudoLiberties[start] = 0;
+
+        while (top > 0) {
+            int p = fill[--top];
+            chainSize[start]++;
+            if (p != start) {                               // link p in after the last stone
+                nextStone[p] = nextStone[last];
+                nextStone[last] = p;
+                last = p;
+            }
+            for (int d = 0; d < 4; d++) {
+                int q = neighbor(p, d);
+                if (q < 0)
+                    continue;
+                if (colors[q] == EMPTY)
+                    pseudoLiberties[start]++;
+                else if (colors[q] == own && chain[q] == -1) {
+                    chain[q] = start;
+                    fill[top++] = q;
+                }
             }
         }
+        if (pseudoLiberties[start] == 0)
+            addPending(start);
+    }
 
-        board[row][col] = null;
+    private void merge(int a, int b) {                      // the smaller chain joins the larger
+        int head = chainSize[a] >= chainSize[b] ? a : b, other = head == a ? b : a;
+        int x = other;
+        do {
+            chain[x] = head;
+            x = nextStone[x];
+        } while (x != other);
+
+        int next = nextStone[head];                         // splice the two circular lists
+        nextStone[head] = nextStone[other];
+        nextStone[other] = next;
+        chainSize[head] += chainSize[other];
+        pseudoLiberties[head] += pseudoLiberties[other];
+    }
+
+    private boolean isUncaptured(int head) {                // still a chain's head, and still without liberties
+        return colors[head] != EMPTY && chain[head] == head && pseudoLiberties[head] == 0;
+    }
+
+    private boolean hasPendingCapture(byte own) {
+        for (int i = 0; i < numPending; i++)
+            if (isUncaptured(pending[i]) && colors[pending[i]] != own)
+                return true;
+        return false;
+    }
+
+    private void addPending(int head) {
+        compactPending();
+        for (int i = 0; i < numPending; i++)
+            if (pending[i] == head)
+                return;
+        pending[numPending++] = head;
     }
 
-    private Stone[] getAdjacentStonesNESW(int row, int col) {
-        Stone north = getStone(row - 1, col);
-        Stone east  = getStone(row, col + 1);
-        Stone south = getStone(row + 1, col);
-        Stone west  = getStone(row, col - 1);
+    private void compactPending() {
+        int kept = 0;
+        for (int i = 0; i < numPending; i++)
+            if (isUncaptured(pending[i]))
+                pending[kept++] = pending[i];
+        numPending = kept;
+    }
 
-        return new Stone[]{north, east, south, west};
+    private boolean seenBefore(int p, int d, int head) {    // head already reached through an earlier neighbour of p
+        for (int e = 0; e < d; e++) {
+            int q = neighbor(p, e);
+            if (q >= 0 && colors[q] != EMPTY && chain[q] == head)
+                return true;
+        }
+        return false;
     }
 
-    private Stone getStone(int row, int col) {
-        if (isValidLocation(row, col))
-            return board[row][col];
-        return null;
+    private int adjacentStones(int p, int head) {           // how many times p is counted in head's pseudo-liberties
+        int n = 0;
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q >= 0 && colors[q] != EMPTY && chain[q] == head)
+                n++;
+        }
+        return n;
+    }
+
+    private int neighbor(int p, int d) {                    // N, E, S, W; -1 off the board
+        switch (d) {
+            case 0:  return p >= size ? p - size : -1;
+            case 1:  return p % size < size - 1 ? p + 1 : -1;
+            case 2:  return p < size * (size - 1) ? p + size : -1;
+            default: return p % size > 0 ? p - 1 : -1;
+        }
+    }
+
+    private static byte toCell(Color color) {
+        if (color == Color.BLACK) return BLACK;
+        if (color == Color.WHITE) return WHITE;
+        throw new IllegalArgumentException("stones are black or white: " + color);
     }
 
     private boolean isValidLocation(int row, int col) {
@@ -190,99 +429,115 @@ public class Board {
 
     public void clearBoard() {
         for (int i = 0; i < board.length; i++)
-            for (int j = 0; j < board.length; j++)
-                board[i][j] = null;
+            Arrays.fill(board[i], null);
+        Arrays.fill(colors, EMPTY);
+        numPending = 0;
+        numCaptured = 0;
     }
 
     public int size() {
         return board.length;
     }
 
+    byte cell(int p) {              // EMPTY, BLACK or WHITE at row * size + col
+        return colors[p];
+    }
+
     public Stone[][] getBoard() {   // used for testing purposes
         return board;
     }
 
-    public Pair<Integer,Integer> scoreBoard(){
-        Set<Stone> visited = new HashSet<>();
-        Queue<Stone> emptyPoints; // unvisited empty points
-        Queue<Stone> unexploredNeighbors;
-        ArrayList<Stone> connectedGroup;//connected group of empty points
-        ArrayList <Pair <List,String> > listOfGroups = new ArrayList <> ();
-        String territory;
-
-        emptyPoints = createEmptyStones(); //initialize empty points
-       //begin territory exploration algorithm
-       while(emptyPoints.size()>0){
-           Stone s = emptyPoints.remove();
-           if(!visited.contains(s)){
-               unexploredNeighbors = new LinkedList<>();
-               unexploredNeighbors.add(s);
-               connectedGroup = new ArrayList<>();
-               territory = "U";
-               while(unexploredNeighbors.size()>0){
-                   Stone n = unexploredNeighbors.remove();
-                   if(!visited.contains(n)){
-                       visited.add(n);
-                   }
-                   if(emptyPoints.contains(n)){
-                      emptyPoints.remove(n);
-                   }
-                   connectedGroup.add(n);
-                   List<Stone> adjList = n.getAdjacentStones();
-                   for (Stone adjacentStone : adjList){
-                       if(adjacentStone.getColor() == Color.DARKGREY) {
-                           if((!visited.contains(adjacentStone)) && (!unexploredNeighbors.contains(adjacentStone))){
-                               unexploredNeighbors.add(adjacentStone);
-                           }
-                       }else if (adjacentStone.getColor() == Color.BLACK) {
-                           if (territory == "W" || territory == "BW") {
-                               territory = "BW";
-                           }else{
-                               territory = "B";
-                           }
-                       } else if (adjacentStone.getColor() == Color.WHITE) {
-                           if (territory == "B" || territory == "BW") {
-                               territory = "BW";
-                           }else{
-                               territory = "W";
-                           }
-                       }
-                   }
-               }
-               listOfGroups.add(new Pair(connectedGroup, territory));
-           }
-       }
-        removeEmptyStones();
-        return calculateScore(listOfGroups);
-    }
-    public void removeEmptyStones(){
-        for (int row = 0; row < board.length; row++)
-            for (int col = 0; col < board.length; col++)
-                if(board[row][col].getColor() == Color.DARKGREY){
-                    removeStoneFromBoard(row,col);
+    public void countLiberties(int[] liberties) {   // liberties of each stone's group, by row * size + col; 0 for empty points
+        Arrays.fill(liberties, 0, size * size, 0);
+        for (int head = 0; head < size * size; head++) {
+            if (colors[head] == EMPTY || chain[head] != head)
+                continue;
+            int numLiberties = chainLiberties(head), x = head;
+            do {
+                liberties[x] = numLiberties;
+                x = nextStone[x];
+            } while (x != head);
+        }
+    }
+
+    int libertiesAt(int row, int col) {             // distinct liberties of the chain at (row, col), 0 if empty
+        int p = row * size + col;
+        return colors[p] == EMPTY ? 0 : chainLiberties(chain[p]);
+    }
+
+    void markChain(int row, int col, Set<Stone> stones) {               // adds the chain's stones, for Stone.getNumLiberties
+        int p = row * size + col;
+        if (colors[p] == EMPTY)
+            return;
+        int x = p;
+        do {
+            stones.add(board[x / size][x % size]);
+            x = nextStone[x];
+        } while (x != p);
+    }
+
+    private int chainLiberties(int head) {
+        stamp++;                                                    // count shared liberties once
+        int numLiberties = 0, x = head;
+        do {
+            for (int d = 0; d < 4; d++) {
+                int q = neighbor(x, d);
+                if (q >= 0 && colors[q] == EMPTY && fillStamp[q] != stamp) {
+                    fillStamp[q] = stamp;
+                    numLiberties++;
                 }
+            }
+            x = nextStone[x];
+        } while (x != head);
+        return numLiberties;
     }
-    public Queue<Stone> createEmptyStones(){
-        Queue<Stone> emptyPoints = new LinkedList<>(); // unvisited empty points
-        //create placeholder stones for empty points
-        for (int row = 0; row < board.length; row++)
-            for (int col = 0; col < board.length; col++)
-                if(board[row][col] == null){
-                    emptyPoints.add( placeStone(row,col,Color.DARKGREY)); // add to queue with all unvisted empty points
+
+    public Pair<Integer,Integer> scoreBoard(){     // territory: empty regions bordered by only one colour
+        long startNanos = EngineMetrics.ENABLED ? System.nanoTime() : 0;
+        ScoreBoardEvent event = new ScoreBoardEvent();
+        event.begin();
+
+        int black = 0, white = 0, regions = 0, largestRegion = 0;
+        stamp++;
+        for (int start = 0; start < size * size; start++) {
+            if (colors[start] != EMPTY || fillStamp[start] == stamp)
+                continue;
+            if (EngineMetrics.ENABLED) EngineMetrics.floodFill();
+
+            int top = 0, count = 0, owner = EMPTY;
+            fill[top++] = start;
+            fillStamp[start] = stamp;
+            while (top > 0) {
+                int p = fill[--top];
+                count++;
+                for (int d = 0; d < 4; d++) {
+                    int q = neighbor(p, d);
+                    if (q < 0)
+                        continue;
+                    if (colors[q] != EMPTY)
+                        owner |= colors[q];                     // BLACK | WHITE when both border it
+                    else if (fillStamp[q] != stamp) {
+                        fillStamp[q] = stamp;
+                        fill[top++] = q;
+                    }
                 }
-        return emptyPoints;
-    }
-    public Pair<Integer,Integer> calculateScore (ArrayList <Pair <List,String> > listOfGroups){
-        int black = 0;
-        int white = 0;
-        for(Pair <List,String> group:listOfGroups){
-            if(group.getValue() == "B"){
-                black += group.getKey().size();
-            }else if(group.getValue() == "W"){
-                white += group.getKey().size();
             }
+            if (owner == BLACK) black += count;
+            if (owner == WHITE) white += count;
+            regions++;
+            largestRegion = Math.max(largestRegion, count);
+        }
+
+        if (EngineMetrics.ENABLED) EngineMetrics.scoreBoardTook(System.nanoTime() - startNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.boardSize = size;
+            event.regions = regions;
+            event.largestRegion = largestRegion;
+            event.position = Positions.encode(this);
+            event.commit();
         }
-        return new Pair(black, white);
+        return new Pair<>(black, white);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package sample.Model.Event;
+import javafx.scene.paint.Color;
+import sample.Model.GameSnapshot;
+
+public final class GameEvent {
+
+    public enum Type {
+        MOVE,           // a stone was placed at row, col
+        CAPTURE,        // the move at row, col captured count stones
+        PASS,
+        GAME_OVER,      // final scores are in the snapshot
+        POSITION        // whole position; sent after restarts and instead of events a slow subscriber missed
+    }
+
+    private final Type type;
+    private final int moveNumber;
+    private final Color color;
+    private final int row, col;
+    private final int count;
+    private final GameSnapshot snapshot;
+
+    private GameEvent(Type type, int moveNumber, Color color, int row, int col, int count, GameSnapshot snapshot) {
+        this.type = type;
+        this.moveNumber = moveNumber;
+        this.color = color;
+        this.row = row;
+        this.col = col;
+        this.count = count;
+        this.snapshot = snapshot;
+    }
+
+    public static GameEvent move(int moveNumber, Color color, int row, int col) {
+        return new GameEvent(Type.MOVE, moveNumber, color, row, col, 0, null);
+    }
+
+    public static GameEvent capture(int moveNumber, Color color, int row, int col, int count) {
+        return new GameEvent(Type.CAPTURE, moveNumber, color, row, col, count, null);
+    }
+
+    public static GameEvent pass(int moveNumber, Color color) {
+        return new GameEvent(Type.PASS, moveNumber, color, -1, -1, 0, null);
+    }
+
+    public static GameEvent gameOver(int moveNumber, GameSnapshot snapshot) {
+        return new GameEvent(Type.GAME_OVER, moveNumber, null, -1, -1, 0, snapshot);
+    }
+
+    public static GameEvent position(int moveNumber, GameSnapshot snapshot) {
+        return new GameEvent(Type.POSITION, moveNumber, null, -1, -1, 0, snapshot);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getMoveNumber() {
+        return moveNumber;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return type + " #" + moveNumber + (row >= 0 ? " [" + row + "," + col + "]" : "") + (count > 0 ? " x" + count : "");
+    }
+
+}
@@ -0,0 +1,169 @@
+package sample.Model.Event;
+import java.util.ArrayDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Publishes a game's events to any number of subscribers. publish() runs on the game thread and
+// only ever appends to a subscriber's bounded buffer; delivery happens on the executor, as fast as
+// each subscriber requests. When a subscriber's buffer is full its backlog is thrown away and
+// replaced by a single POSITION event, so a slow subscriber sees the latest position instead of
+// holding up the game or growing an unbounded queue.
+public class GameEventPublisher implements Flow.Publisher<GameEvent>, AutoCloseable {
+
+    private final CopyOnWriteArrayList<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Supplier<GameEvent> position;
+    private final Executor executor;
+    private final int bufferSize;
+    private volatile boolean closed;
+
+    public GameEventPublisher(Supplier<GameEvent> position, Executor executor, int bufferSize) {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("bufferSize must be positive");
+        this.position = position;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+        EventSubscription subscription = new EventSubscription(subscriber);
+        if (closed) {
+            subscription.done = true;
+        } else {
+            subscriptions.add(subscription);
+        }
+        subscriber.onSubscribe(subscription);
+        subscription.schedule();
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public int getNumberOfSubscribers() {
+        return subscriptions.size();
+    }
+
+    public void publish(GameEvent event) {
+        GameEvent latest = null;                                    // built at most once per publish, and only if someone fell behind
+        for (EventSubscription subscription : subscriptions) {
+            if (!subscription.offer(event)) {
+                if (latest == null)
+                    latest = position.get();
+                subscription.conflate(latest);
+            }
+        }
+    }
+
+    @Override
+    public void close() {                                           // subscribers get onComplete once their buffers are drained
+        closed = true;
+        for (EventSubscription subscription : subscriptions)
+            subscription.complete();
+        subscriptions.clear();
+    }
+
+    private class EventSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super GameEvent> subscriber;
+        private final ArrayDeque<GameEvent> buffer = new ArrayDeque<>();     // guarded by this
+        private final AtomicInteger wip = new AtomicInteger();               // drain loop runs on one thread at a time
+        private long demand;                                                 // guarded by this
+        private boolean done;                                                // guarded by this
+        private volatile boolean cancelled;
+        private Throwable error;                                             // guarded by this
+
+        EventSubscription(Flow.Subscriber<? super GameEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        synchronized boolean offer(GameEvent event) {
+            if (cancelled || done)
+                return true;
+            if (buffer.size() >= bufferSize)
+                return false;
+            buffer.add(event);
+            schedule();
+            return true;
+        }
+
+        synchronized void conflate(GameEvent latest) {
+            buffer.clear();
+            buffer.add(latest);
+            schedule();
+        }
+
+        synchronized void complete() {
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0) {
+                    error = new IllegalArgumentException("non-positive request: " + n);
+                    buffer.clear();
+                    done = true;
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        void schedule() {
+            if (wip.getAndIncrement() == 0)
+                executor.execute(this);
+        }
+
+        @Override
+        public void run() {                                        // drain loop
+            int missed = 1;
+            while (true) {
+                while (!cancelled) {
+                    GameEvent next = null;
+                    boolean finished = false;
+                    Throwable failure = null;
+                    synchronized (this) {
+                        if (demand > 0 && !buffer.isEmpty()) {
+                            next = buffer.poll();
+                            demand--;
+                        } else if (done && (buffer.isEmpty() || error != null)) {
+                            finished = true;
+                            failure = error;
+                        }
+                    }
+                    if (finished) {
+                        cancel();
+                        if (failure != null)
+                            subscriber.onError(failure);
+                        else
+                            subscriber.onComplete();
+                    }
+                    if (next == null)
+                        break;
+                    try {
+                        subscriber.onNext(next);
+                    } catch (Throwable t) {
+                        cancel();
+                        subscriber.onError(t);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0)
+                    return;
+            }
+        }
+    }
+
+}
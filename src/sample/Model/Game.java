@@ -1,48 +1,125 @@
 package sample.Model;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
 import javafx.scene.paint.Color;
+import sample.Model.Event.GameEvent;
+import sample.Model.Event.GameEventPublisher;
+import sample.Model.Journal.MoveJournal;
+import sample.Model.Metrics.EngineMetrics;
+import sample.Model.Profiling.PlayerMoveEvent;
+import sample.Model.Profiling.Positions;
 import sample.Model.Utility.Pair;
 
 public class Game {
     private Player[] players;
     private Board board;
+    private ScoreEstimator scoreEstimator;
     private int turn;
-    private MoveData prevMove;          // ko rule
+    private int prevMove = Board.NONE;  // ko rule: the last stone played and how many stones it took
+    private int prevMoveCaptured;
     private boolean lastTurnPassed;
+    private int moveNumber;
+    private boolean[] legalMoves;       // legality of every point for the current turn, see isLegalMove()
+    private boolean legalMovesValid;
+    private Function<GameSnapshot, boolean[]> deadStones;   // null: every stone on the board is alive when the game is scored
+    private ArrayDeque<Change> undoable, redoable;          // null unless setUndoEnabled(true), see undo()
+    private Change scoring;                                 // the pass being scored, to note the dead stones on
+    private boolean publishing;
+    private long version;                                   // changes published so far
+    private volatile VersionedPosition published;           // the latest of them, for readers on other threads
+
+    private GameEventPublisher events;  // null until someone asks for it
+    private MoveJournal journal;        // crash recovery, null when not journaled
+    private long gameId;
+    private int recordsSinceSnapshot;
+    private EngineMetrics.Session metrics;  // null unless setMetricsEnabled(true)
 
     public Game() {
+        this(9);
+    }
+
+    public Game(int size) {
         players = new Player[]{
                                  new Player("Player 1", Color.BLACK),
                                  new Player("Player 2", Color.WHITE)
                               };
-        setBoardSize(9);
+        setBoardSize(size);
     }
 
     public void setBoardSize(int size) {
-        board = new Board(size);
+        if (board != null && board.size() == size) {
+            board.clearBoard();                     // reuse the board's stones
+            scoreEstimator.recompute();
+        } else {
+            board = new Board(size);
+            scoreEstimator = new ScoreEstimator(board);
+        }
+        prevMove = Board.NONE;                      // a packed point means nothing on another size
+        legalMovesValid = false;
+        clearHistory();
+        if (journal != null) journal.appendResize(gameId, size);
+        journaled();
+        published();
+        if (events != null) events.publish(positionEvent());
+    }
+
+    public boolean isValidMove(int row, int col) {      // uses this turn's legality map if it has been built, otherwise checks just this point
+        boolean valid = legalMovesValid ? isLegalMove(row, col) : checkMove(row, col);
+        if (EngineMetrics.ENABLED) EngineMetrics.validMoveChecked(valid);
+        return valid;
+    }
+
+    public boolean isLegalMove(int row, int col) {      // O(1) after the first call of each turn, which checks every point once
+        int size = board.size();
+        if (row < 0 || col < 0 || row >= size || col >= size)
+            return false;
+
+        if (!legalMovesValid) {
+            if (legalMoves == null || legalMoves.length != size * size)
+                legalMoves = new boolean[size * size];
+            for (int i = 0; i < size; i++)
+                for (int j = 0; j < size; j++)
+                    legalMoves[i * size + j] = checkMove(i, j);
+            legalMovesValid = true;
+        }
+        return legalMoves[row * size + col];
     }
 
-    public boolean isValidMove(int row, int col) {
+    private boolean checkMove(int row, int col) {
         Player currentPlayer = getCurrentPlayer();
 
         return board.isValidMove(row, col, currentPlayer.getColor()) && !isRepeatBoardPosition(row, col, currentPlayer.getColor());
-}
+    }
 
     private boolean isRepeatBoardPosition(int row, int col, Color color) {
-        boolean isRepeatPosition = false;
+        if (prevMove == Board.NONE || prevMoveCaptured != 1)
+            return false;                                               // ko needs the last move to have taken exactly one stone
 
-        board.placeStoneOnBoard(row, col, color);                        // make move
-        if (board.countCapturedStones(color) == 1) {
-            Pair<Integer, Integer> capturedStone = board.captureSingleStone(color);
-            MoveData currMove = new MoveData(capturedStone, 1);
-            if (prevMove != null && currMove.equals(prevMove))                           // check for ko rule
-                isRepeatPosition = true;
-        }
+        int capturedStone = board.singleCapture(row, col, color);     // retaking at once would repeat the position
+        return capturedStone == prevMove;
+    }
+
+    public int getKoPoint() {       // the point the current player can't take back because of the ko rule, or Board.NONE
+        if (prevMove == Board.NONE || prevMoveCaptured != 1)
+            return Board.NONE;
 
-        board.removeStoneFromBoard(row, col);                                               // undo move
-        return isRepeatPosition;
+        Color color = getCurrentPlayer().getColor();
+        int size = board.size(), row = prevMove / size, col = prevMove % size;
+        for (int d = 0; d < 4; d++) {                                   // N, E, S, W of the last stone
+            int r = row + (d == 0 ? -1 : d == 2 ? 1 : 0), c = col + (d == 1 ? 1 : d == 3 ? -1 : 0);
+            if (board.isValidMove(r, c, color) && isRepeatBoardPosition(r, c, color))
+                return r * size + c;
+        }
+        return Board.NONE;
     }
 
     public void playerMove(int row, int col) {
+        PlayerMoveEvent event = new PlayerMoveEvent();
+        event.begin();
         Player currentPlayer = getCurrentPlayer();
         // System.out.println((currentPlayer.getColor() == Color.WHITE ? "WHITE" : "BLACK") + " attempt to place stone at [" + row + "," + col + "]");
 
@@ -51,27 +128,198 @@ public class Game {
             return;
         }
 
+        Change change = undoable != null ? new Change(row * board.size() + col, this) : null;
         board.placeStoneOnBoard(row, col, currentPlayer.getColor());                // make move
         int numStonesCaptured = board.captureStones(currentPlayer.getColor());      // capture enemy stones
+        if (change != null)
+            recorded(change.removed(board, currentPlayer.getColor() == Color.BLACK ? GameSnapshot.WHITE : GameSnapshot.BLACK));
         currentPlayer.incrementScore(numStonesCaptured);                   // increment score by # stones captured
+        scoreEstimator.stonePlaced(row, col);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.movePlayed();
+            if (metrics != null) metrics.movePlayed();
+        }
 
-        prevMove = new MoveData(row, col, numStonesCaptured);
+        prevMove = row * board.size() + col;
+        prevMoveCaptured = numStonesCaptured;
         lastTurnPassed = false;
+        moveNumber++;
+        legalMovesValid = false;
+        if (journal != null) journal.appendMove(gameId, row, col);
+        journaled();
+
+        if (events != null) {
+            events.publish(GameEvent.move(moveNumber, currentPlayer.getColor(), row, col));
+            if (numStonesCaptured > 0)
+                events.publish(GameEvent.capture(moveNumber, currentPlayer.getColor(), row, col, numStonesCaptured));
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            int size = board.size();
+            char[] before = Positions.cells(board);                  // take the move back
+            before[row * size + col] = Positions.EMPTY;
+            for (int n = 0; n < numStonesCaptured; n++)
+                before[board.getCaptured(n)] = currentPlayer.getColor() == Color.BLACK ? Positions.WHITE : Positions.BLACK;
+            event.boardSize = size;
+            event.moveNumber = moveNumber;
+            event.point = row * size + col;
+            event.black = currentPlayer.getColor() == Color.BLACK;
+            event.stonesCaptured = numStonesCaptured;
+            event.position = new String(before);
+            event.commit();
+        }
         // System.out.println(toString());
     }
 
     public void passTurn() {
-        if(lastTurnPassed) {
-            gameOver();
+        Color passingColor = getCurrentPlayer().getColor();
+        boolean isGameOver = lastTurnPassed;
+        Change change = undoable != null ? new Change(Board.PASS, this) : null;
+        if(isGameOver) {
+            scoring = change;
+            scoreGame();
+            scoring = null;
             //System.exit(0);
         }
+        if (change != null)
+            recorded(change);
 
-        nextTurn();
+        turn = ++turn % 2;
         lastTurnPassed = true;
+        moveNumber++;
+        legalMovesValid = false;
+        if (journal != null) journal.appendPass(gameId);
+        if (isGameOver)
+            snapshotJournaled();                    // replay has no dead-stone function, so log the scored position
+        else
+            journaled();
+        published();
+
+        if (events != null) {
+            events.publish(GameEvent.pass(moveNumber, passingColor));
+            if (isGameOver)
+                events.publish(GameEvent.gameOver(moveNumber, snapshot()));
+        }
     }
 
     public void nextTurn() {
         turn = ++turn % 2;
+        legalMovesValid = false;
+        if (journal != null) journal.appendNextTurn(gameId);
+        journaled();
+        published();
+    }
+
+    public void setJournal(MoveJournal journal, long gameId) {     // starts the game's log with a snapshot of its current state
+        this.journal = journal;
+        this.gameId = gameId;
+        recordsSinceSnapshot = 0;
+        if (journal != null) journal.appendSnapshot(gameId, snapshot());
+    }
+
+    public GameEventPublisher getEvents() {                         // delivers on the common pool, 64 events of slack per subscriber
+        if (events == null)
+            events = new GameEventPublisher(this::positionEvent, ForkJoinPool.commonPool(), 64);
+        return events;
+    }
+
+    public GameEventPublisher publishEvents(Executor executor, int bufferSize) {
+        if (events != null)
+            events.close();
+        events = new GameEventPublisher(this::positionEvent, executor, bufferSize);
+        return events;
+    }
+
+    public void closeEvents() {                                     // subscribers get onComplete; a later getEvents() starts afresh
+        if (events != null) {
+            events.close();
+            events = null;
+        }
+    }
+
+    private GameEvent positionEvent() {
+        return GameEvent.position(moveNumber, snapshot());
+    }
+
+    private void journaled() {                                      // bound how much has to be replayed on recovery
+        if (journal != null && ++recordsSinceSnapshot >= journal.getSnapshotInterval())
+            snapshotJournaled();
+    }
+
+    private void snapshotJournaled() {
+        if (journal != null) {
+            journal.appendSnapshot(gameId, snapshot());
+            recordsSinceSnapshot = 0;
+        }
+    }
+
+    // Readers on other threads (renderers, analysers, spectators) must not look at the live board
+    // while this game's thread changes it. With publishing on, every whole change ends by
+    // swapping a new immutable VersionedPosition into a volatile field: readers see some whole
+    // position without locking, and the game thread never waits for them. A move is whole once
+    // the nextTurn() after playerMove() has handed the turn over, so it is published there, and
+    // a reader never sees the new stone with the same player still to move. playerMove() alone
+    // publishes nothing: a game that publishes must follow every move with nextTurn(), as
+    // GameEngine, GameRecord.play() and BatchSimulator do.
+    public void setPublishing(boolean publishing) {
+        this.publishing = publishing;
+        published = null;
+        published();
+    }
+
+    public VersionedPosition getPublishedPosition() {   // safe from any thread; null unless publishing
+        return published;
+    }
+
+    private void published() {
+        if (publishing)
+            published = new VersionedPosition(++version, snapshot());
+    }
+
+    public GameSnapshot snapshot() {
+        int size = board.size();
+        byte[] cells = new byte[size * size];
+        Stone[][] stones = board.getBoard();
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                if (stones[i][j] != null)
+                    cells[i * size + j] = GameSnapshot.toCell(stones[i][j].getColor());
+
+        int[] scores = {players[0].getScore(), players[1].getScore()};
+        if (prevMove == Board.NONE)
+            return new GameSnapshot(size, cells, turn, scores, -1, -1, -1, lastTurnPassed, moveNumber);
+        return new GameSnapshot(size, cells, turn, scores, prevMove / size, prevMove % size, prevMoveCaptured, lastTurnPassed, moveNumber);
+    }
+
+    public void restore(GameSnapshot snapshot) {
+        boolean sameSize = board.size() == snapshot.size();
+        if (sameSize)
+            board.clearBoard();
+        else
+            board = new Board(snapshot.size());
+
+        for (int i = 0; i < snapshot.size(); i++)
+            for (int j = 0; j < snapshot.size(); j++)
+                if (snapshot.get(i, j) != GameSnapshot.EMPTY)
+                    board.placeStoneOnBoard(i, j, snapshot.getColor(i, j));
+        if (sameSize)
+            scoreEstimator.recompute();
+        else
+            scoreEstimator = new ScoreEstimator(board);
+
+        for (int i = 0; i < players.length; i++) {
+            players[i].resetScore();
+            players[i].incrementScore(snapshot.getScore(i));
+        }
+        turn = snapshot.getTurn();
+        lastTurnPassed = snapshot.isLastTurnPassed();
+        moveNumber = snapshot.getMoveNumber();
+        legalMovesValid = false;
+        prevMove = snapshot.getKoCaptured() < 0 ? Board.NONE : snapshot.getKoRow() * snapshot.size() + snapshot.getKoCol();
+        prevMoveCaptured = Math.max(0, snapshot.getKoCaptured());
+        clearHistory();
+        published();
     }
 
     @Override
@@ -95,7 +343,50 @@ public class Game {
         return board.size();
     }
 
-    public void gameOver(){
+    public ScoreEstimator getScoreEstimator() {      // kept up to date by playerMove(); see ScoreEstimator
+        return scoreEstimator;
+    }
+
+    public int getEstimatedLead() {                 // black's captures and territory minus white's, as gameOver() would count them now
+        return players[0].getScore() + scoreEstimator.getTerritory(players[0].getColor())
+             - players[1].getScore() - scoreEstimator.getTerritory(players[1].getColor());
+    }
+
+    public int getMoveNumber() {
+        return moveNumber;
+    }
+
+    public void gameOver(){             // takes dead stones off without noting them, so nothing before it can be undone
+        scoreGame();
+        clearHistory();
+        if (journal != null) journal.appendGameOver(gameId);
+        snapshotJournaled();
+        published();
+        if (events != null) events.publish(GameEvent.gameOver(moveNumber, snapshot()));
+    }
+
+    // Gives this game its own moves/s session in EngineMetrics. Only for games someone is playing:
+    // the throwaway games that analysis, dead-stone estimation and export play out stay out of it.
+    public void setMetricsEnabled(boolean enabled) {
+        if (!EngineMetrics.ENABLED)
+            return;
+        if (enabled && metrics == null) {
+            metrics = EngineMetrics.newSession();
+        } else if (!enabled && metrics != null) {
+            metrics.close();
+            metrics = null;
+        }
+    }
+
+    // Called with the final position when the game is scored; the stones it marks are taken off
+    // the board as prisoners of the other side before territory is counted. See DeadStoneEstimator.
+    public void setDeadStones(Function<GameSnapshot, boolean[]> deadStones) {
+        this.deadStones = deadStones;
+    }
+
+    private void scoreGame() {
+        if (deadStones != null)
+            removeDeadStones();
         Pair<Integer,Integer> score = board.scoreBoard();
         for (Player p : players){
             if(p.getColor() == Color.BLACK){
@@ -105,32 +396,225 @@ public class Game {
             }
         }
     }
-    public void restartGame() {
-        board.clearBoard();
-        for (Player p : players) p.resetScore();
-        turn = 0;
-        lastTurnPassed = false;
-        prevMove = null;
+
+    private void removeDeadStones() {
+        boolean[] dead = deadStones.apply(snapshot());
+        Stone[][] stones = board.getBoard();
+        int size = board.size();
+        for (int p = 0; p < size * size; p++) {
+            Stone stone = stones[p / size][p % size];
+            if (!dead[p] || stone == null)
+                continue;
+            Player opponent = stone.getColor() == players[0].getColor() ? players[1] : players[0];
+            if (scoring != null)
+                scoring.addRemoved(p, GameSnapshot.toCell(stone.getColor()));
+            board.removeStoneFromBoard(p / size, p % size);
+            opponent.incrementScore(1);
+        }
+        scoreEstimator.recompute();
+        legalMovesValid = false;
     }
 
-}
+    // Moves and passes can be taken back and played again. Each change keeps only what it did: the
+    // point played, the stones it took off (captures, or dead stones when a pass ended the game)
+    // and the turn, scores and ko state on either side of it, so undo and redo cost as much as
+    // the stones they put back or take off. The turn after a move is noted when it is undone, so
+    // undo goes back past the nextTurn() that followed it. A new move drops what could be redone.
+    // The journal gets the same diff, so recovery replays it with no history and no snapshot.
+    public void setUndoEnabled(boolean enabled) {
+        undoable = enabled ? new ArrayDeque<>() : null;
+        redoable = enabled ? new ArrayDeque<>() : null;
+    }
+
+    public boolean canUndo() {
+        return undoable != null && !undoable.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return redoable != null && !redoable.isEmpty();
+    }
 
-class MoveData {
-    private Pair<Integer, Integer> position;
-    private int stonesCaptured;
+    public boolean undo() {
+        if (!canUndo())
+            return false;
+        Change change = undoable.pop();
+        change.after = new Counters(this);
+        int size = board.size();
+        if (change.point != Board.PASS) {
+            Color color = players[change.before.turn].getColor();
+            board.removeStoneFromBoard(change.point / size, change.point % size);
+            scoreEstimator.stoneTakenBack(change.point / size, change.point % size, color);
+        }
+        for (int n = 0; n < change.numRemoved; n++) {
+            int p = change.removed[n];
+            board.placeStoneOnBoard(p / size, p % size, GameSnapshot.toColor(change.removedColors[n]));
+            scoreEstimator.stoneRestored(p / size, p % size);
+        }
+        change.before.restore(this);
+        redoable.push(change);
+        if (journal != null)
+            journal.appendUndo(gameId, change.stone(), change.removedPoints(), change.removedColors(), change.before.toArray());
+        changed();
+        return true;
+    }
 
-    MoveData(int x, int y, int stonesCaptured) {
-        position = new Pair<>(x, y);
-        this.stonesCaptured = stonesCaptured;
+    public boolean redo() {
+        if (!canRedo())
+            return false;
+        Change change = redoable.pop();
+        int size = board.size();
+        if (change.point != Board.PASS) {
+            Color color = players[change.before.turn].getColor();
+            board.placeStoneOnBoard(change.point / size, change.point % size, color);
+            board.captureStones(color);
+            scoreEstimator.stonePlaced(change.point / size, change.point % size);
+        } else if (change.numRemoved > 0) {
+            for (int n = 0; n < change.numRemoved; n++)
+                board.removeStoneFromBoard(change.removed[n] / size, change.removed[n] % size);
+            scoreEstimator.recompute();
+        }
+        change.after.restore(this);
+        undoable.push(change);
+        if (journal != null)
+            journal.appendRedo(gameId, change.removedPoints(), change.stone(),
+                               change.stone().length == 0 ? new byte[0] : new byte[]{GameSnapshot.toCell(players[change.before.turn].getColor())},
+                               change.after.toArray());
+        changed();
+        return true;
     }
 
-    MoveData(Pair<Integer, Integer> pair, int stonesCaptured) {
-        this.position = pair;
-        this.stonesCaptured = stonesCaptured;
+    // Replays a journaled undo or redo without the history it came from: takes the stones on
+    // cleared off, puts placed back on and sets the turn, scores and ko state it recorded.
+    public void applyChange(int[] cleared, int[] placed, byte[] placedColors, int[] counters) {
+        int size = board.size();
+        for (int p : cleared)
+            board.removeStoneFromBoard(p / size, p % size);
+        for (int n = 0; n < placed.length; n++)
+            board.placeStoneOnBoard(placed[n] / size, placed[n] % size, GameSnapshot.toColor(placedColors[n]));
+        scoreEstimator.recompute();
+        new Counters(counters).restore(this);
+        clearHistory();
+        changed();
     }
 
-    @Override
-    public boolean equals(Object o) {
-        return o instanceof MoveData && (o == this || ((MoveData) o).stonesCaptured == this.stonesCaptured && ((MoveData) o).position.equals(this.position));
+    private void recorded(Change change) {
+        undoable.push(change);
+        redoable.clear();
     }
-}
\ No newline at end of file
+
+    private void clearHistory() {
+        if (undoable != null) {
+            undoable.clear();
+            redoable.clear();
+        }
+    }
+
+    private void changed() {
+        legalMovesValid = false;
+        journaled();
+        published();
+        if (events != null) events.publish(positionEvent());
+    }
+
+    private static final class Counters {      // turn, scores and ko state at one point in the game
+        final int turn, blackScore, whiteScore, prevMove, prevMoveCaptured, moveNumber;
+        final boolean lastTurnPassed;
+
+        Counters(int[] values) {                // as toArray() wrote them
+            turn = values[0];
+            blackScore = values[1];
+            whiteScore = values[2];
+            prevMove = values[3];
+            prevMoveCaptured = values[4];
+            moveNumber = values[5];
+            lastTurnPassed = values[6] != 0;
+        }
+
+        Counters(Game game) {
+            turn = game.turn;
+            blackScore = game.players[0].getScore();
+            whiteScore = game.players[1].getScore();
+            prevMove = game.prevMove;
+            prevMoveCaptured = game.prevMoveCaptured;
+            moveNumber = game.moveNumber;
+            lastTurnPassed = game.lastTurnPassed;
+        }
+
+        void restore(Game game) {
+            game.turn = turn;
+            game.players[0].resetScore();
+            game.players[0].incrementScore(blackScore);
+            game.players[1].resetScore();
+            game.players[1].incrementScore(whiteScore);
+            game.prevMove = prevMove;
+            game.prevMoveCaptured = prevMoveCaptured;
+            game.moveNumber = moveNumber;
+            game.lastTurnPassed = lastTurnPassed;
+        }
+
+        int[] toArray() {
+            return new int[]{turn, blackScore, whiteScore, prevMove, prevMoveCaptured, moveNumber, lastTurnPassed ? 1 : 0};
+        }
+    }
+
+    private static final class Change {         // one move or pass, see setUndoEnabled()
+        final int point;                        // row * size + col, or Board.PASS
+        final Counters before;
+        Counters after;                         // noted when undone
+        int[] removed;                          // points of the stones it took off, null if none
+        byte[] removedColors;                   // GameSnapshot.BLACK or WHITE
+        int numRemoved;
+
+        Change(int point, Game game) {
+            this.point = point;
+            this.before = new Counters(game);
+        }
+
+        Change removed(Board board, byte color) {       // the stones board's last captureStones() took
+            for (int n = 0; n < board.getNumCaptured(); n++)
+                addRemoved(board.getCaptured(n), color);
+            return this;
+        }
+
+        int[] stone() {
+            return point == Board.PASS ? new int[0] : new int[]{point};
+        }
+
+        int[] removedPoints() {
+            return numRemoved == 0 ? new int[0] : Arrays.copyOf(removed, numRemoved);
+        }
+
+        byte[] removedColors() {
+            return numRemoved == 0 ? new byte[0] : Arrays.copyOf(removedColors, numRemoved);
+        }
+
+        void addRemoved(int p, byte color) {
+            if (removed == null) {
+                removed = new int[4];
+                removedColors = new byte[4];
+            } else if (numRemoved == removed.length) {
+                removed = Arrays.copyOf(removed, numRemoved * 2);
+                removedColors = Arrays.copyOf(removedColors, numRemoved * 2);
+            }
+            removed[numRemoved] = p;
+            removedColors[numRemoved++] = color;
+        }
+    }
+
+    public void restartGame() {
+        board.clearBoard();
+        scoreEstimator.recompute();
+        for (Player p : players) p.resetScore();
+        turn = 0;
+        lastTurnPassed = false;
+        prevMove = Board.NONE;
+        moveNumber = 0;
+        legalMovesValid = false;
+        clearHistory();
+        if (journal != null) journal.appendRestart(gameId);
+        journaled();
+        published();
+        if (events != null) events.publish(positionEvent());
+    }
+
+}
@@ -0,0 +1,144 @@
+package sample.Model;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Runs all work on a Game on one dedicated thread, so the UI thread never waits on validation,
+// scoring or an AI move. Requests are queued in order and none are dropped; after each one that
+// isn't immediately followed by another, an immutable State is handed to the view on its own
+// executor (Platform::runLater for JavaFX).
+public class GameEngine {
+
+    private final Game game;
+    private final Executor viewExecutor;
+    private final Consumer<State> view;
+    private final ThreadPoolExecutor engine;
+
+    public GameEngine(Game game, Executor viewExecutor, Consumer<State> view) {
+        this.game = game;
+        game.setPublishing(true);
+        this.viewExecutor = viewExecutor;
+        this.view = view;
+        this.engine = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "game-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public State currentState() {       // only safe before the first request, or on the engine thread
+        return new State(game);
+    }
+
+    public VersionedPosition latestPosition() {     // safe from any thread, and doesn't wait for queued requests
+        return game.getPublishedPosition();
+    }
+
+    public void playMove(int row, int col) {
+        submit(game -> {
+            if (game.isValidMove(row, col)) {
+                game.playerMove(row, col);
+                game.nextTurn();
+            }
+        });
+    }
+
+    public void passTurn() {
+        submit(Game::passTurn);
+    }
+
+    public void restartGame() {
+        submit(Game::restartGame);
+    }
+
+    public void undo() {
+        submit(Game::undo);
+    }
+
+    public void redo() {
+        submit(Game::redo);
+    }
+
+    public void setBoardSize(int size) {
+        submit(game -> game.setBoardSize(size));
+    }
+
+    public void submit(Consumer<Game> request) {
+        engine.execute(() -> {
+            try {
+                request.accept(game);
+            } finally {
+                if (engine.getQueue().isEmpty()) {          // the next request will publish a newer state anyway
+                    State state = new State(game);
+                    viewExecutor.execute(() -> view.accept(state));
+                }
+            }
+        });
+    }
+
+    public void shutdown() {
+        engine.shutdown();
+    }
+
+    public static final class State {   // everything the view needs, copied on the engine thread
+
+        private final GameSnapshot snapshot;
+        private final boolean[] legalMoves;
+        private final int estimatedLead;
+        private final String[] playerNames;
+        private final boolean canUndo, canRedo;
+
+        private State(Game game) {
+            snapshot = game.snapshot();
+            int size = snapshot.size();
+            legalMoves = new boolean[size * size];
+            for (int i = 0; i < size; i++)
+                for (int j = 0; j < size; j++)
+                    legalMoves[i * size + j] = game.isLegalMove(i, j);
+            estimatedLead = game.getEstimatedLead();
+            playerNames = new String[]{game.getPlayers()[0].getName(), game.getPlayers()[1].getName()};
+            canUndo = game.canUndo();
+            canRedo = game.canRedo();
+        }
+
+        public GameSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public int getBoardSize() {
+            return snapshot.size();
+        }
+
+        public boolean isLegalMove(int row, int col) {
+            int size = snapshot.size();
+            return row >= 0 && col >= 0 && row < size && col < size && legalMoves[row * size + col];
+        }
+
+        public int getEstimatedLead() {
+            return estimatedLead;
+        }
+
+        public String getPlayerName(int player) {
+            return playerNames[player];
+        }
+
+        public String getCurrentPlayerName() {
+            return playerNames[snapshot.getTurn()];
+        }
+
+        public boolean isWhiteToMove() {
+            return snapshot.getTurn() == 1;
+        }
+
+        public boolean canUndo() {
+            return canUndo;
+        }
+
+        public boolean canRedo() {
+            return canRedo;
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package sample.Model;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps finished games around, per board size, so self-play and server workloads can reuse
+// them instead of allocating a new Game, Board and stones for every game. A released game is
+// reset in place (restartGame() reuses the board's stones), so acquire/release allocate nothing
+// once the pool is warm.
+public class GamePool {
+
+    private final ConcurrentHashMap<Integer, ArrayBlockingQueue<Game>> free = new ConcurrentHashMap<>();
+    private final int maxIdlePerSize;
+
+    public GamePool(int maxIdlePerSize) {
+        this.maxIdlePerSize = maxIdlePerSize;
+    }
+
+    public void prefill(int size, int count) {
+        ArrayBlockingQueue<Game> games = games(size);
+        for (int i = 0; i < count; i++)
+            if (!games.offer(new Game(size)))
+                break;
+    }
+
+    public Game acquire(int size) {
+        Game game = games(size).poll();
+        if (game == null)
+            game = new Game(size);
+        game.setMetricsEnabled(true);               // one session per borrow
+        return game;
+    }
+
+    public void release(Game game) {                // the next borrower gets none of this game's attachments
+        game.closeEvents();
+        game.setJournal(null, 0);
+        game.setDeadStones(null);
+        game.setUndoEnabled(false);
+        game.setPublishing(false);
+        game.setMetricsEnabled(false);
+        game.restartGame();
+        games(game.getBoardSize()).offer(game);     // dropped for the GC if the pool is full
+    }
+
+    public int idle(int size) {
+        return games(size).size();
+    }
+
+    private ArrayBlockingQueue<Game> games(int size) {
+        ArrayBlockingQueue<Game> games = free.get(size);
+        if (games == null)
+            games = free.computeIfAbsent(size, s -> new ArrayBlockingQueue<>(maxIdlePerSize));
+        return games;
+    }
+
+}
@@ -0,0 +1,127 @@
+package sample.Model;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import javafx.scene.paint.Color;
+
+public final class GameSnapshot {       // immutable copy of everything needed to rebuild a Game
+
+    public static final byte EMPTY = 0;
+    public static final byte BLACK = 1;
+    public static final byte WHITE = 2;
+
+    private final int size;
+    private final byte[] cells;         // row * size + col -> EMPTY / BLACK / WHITE
+    private final int turn;
+    private final int[] scores;
+    private final int koRow, koCol, koCaptured;     // previous move, used for the ko rule (-1 if none)
+    private final boolean lastTurnPassed;
+    private final int moveNumber;
+
+    GameSnapshot(int size, byte[] cells, int turn, int[] scores, int koRow, int koCol, int koCaptured, boolean lastTurnPassed, int moveNumber) {
+        this.size = size;
+        this.cells = cells;
+        this.turn = turn;
+        this.scores = scores;
+        this.koRow = koRow;
+        this.koCol = koCol;
+        this.koCaptured = koCaptured;
+        this.lastTurnPassed = lastTurnPassed;
+        this.moveNumber = moveNumber;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte get(int row, int col) {
+        return cells[row * size + col];
+    }
+
+    public Color getColor(int row, int col) {
+        return toColor(get(row, col));
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    public int getKoRow() {
+        return koRow;
+    }
+
+    public int getKoCol() {
+        return koCol;
+    }
+
+    public int getKoCaptured() {
+        return koCaptured;
+    }
+
+    public boolean isLastTurnPassed() {
+        return lastTurnPassed;
+    }
+
+    public int getMoveNumber() {
+        return moveNumber;
+    }
+
+    public static byte toCell(Color color) {
+        if (color == Color.BLACK) return BLACK;
+        if (color == Color.WHITE) return WHITE;
+        return EMPTY;
+    }
+
+    public static Color toColor(byte cell) {
+        if (cell == BLACK) return Color.BLACK;
+        if (cell == WHITE) return Color.WHITE;
+        return null;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeShort(size);
+        out.writeByte(turn);
+        out.writeInt(scores[0]);
+        out.writeInt(scores[1]);
+        out.writeShort(koRow);
+        out.writeShort(koCol);
+        out.writeInt(koCaptured);
+        out.writeBoolean(lastTurnPassed);
+        out.writeInt(moveNumber);
+
+        byte packed = 0;                                     // 2 bits per point, 4 points per byte
+        for (int i = 0; i < cells.length; i++) {
+            packed |= cells[i] << ((i % 4) * 2);
+            if (i % 4 == 3 || i == cells.length - 1) {
+                out.writeByte(packed);
+                packed = 0;
+            }
+        }
+    }
+
+    public static GameSnapshot read(DataInput in) throws IOException {
+        int size = in.readShort();
+        int turn = in.readByte();
+        int[] scores = {in.readInt(), in.readInt()};
+        int koRow = in.readShort();
+        int koCol = in.readShort();
+        int koCaptured = in.readInt();
+        boolean lastTurnPassed = in.readBoolean();
+        int moveNumber = in.readInt();
+
+        byte[] cells = new byte[size * size];
+        int packed = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (i % 4 == 0)
+                packed = in.readByte();
+            cells[i] = (byte) ((packed >> ((i % 4) * 2)) & 3);
+        }
+        return new GameSnapshot(size, cells, turn, scores, koRow, koCol, koCaptured, lastTurnPassed, moveNumber);
+    }
+
+}
@@ -0,0 +1,128 @@
+package sample.Model;
+import java.util.Arrays;
+
+import javafx.scene.paint.Color;
+import sample.Model.Record.GameRecord;
+
+// A recorded game prepared for seeking. Every KEYFRAME_INTERVAL moves the whole board is kept,
+// packed at 2 bits per point; in between only what each move changed (the stone placed and the
+// stones it captured) is kept. Any position is rebuilt from the keyframe before it plus at most
+// KEYFRAME_INTERVAL - 1 moves, so seeking costs the same anywhere in the game. A 300 move 19x19
+// game takes a few kilobytes.
+public class GameTimeline {
+
+    public static final int KEYFRAME_INTERVAL = 16;
+
+    private final int size;
+    private final int length;
+    private final byte[][] keyframes;   // position after move k * KEYFRAME_INTERVAL, packed
+    private final int[] deltaStart;     // by move: offset of [point, number captured, captured points...] in deltas
+    private final int[] deltas;
+    private final byte[] colors;        // by move: GameSnapshot.BLACK or WHITE
+    private final int[] captures;       // by move: black's and white's captures after it, interleaved
+
+    private GameTimeline(int size, int length, byte[][] keyframes, int[] deltaStart, int[] deltas, byte[] colors, int[] captures) {
+        this.size = size;
+        this.length = length;
+        this.keyframes = keyframes;
+        this.deltaStart = deltaStart;
+        this.deltas = deltas;
+        this.colors = colors;
+        this.captures = captures;
+    }
+
+    // Replays the record through a Game once. A record that breaks this engine's rules is cut off
+    // before the first illegal move.
+    public static GameTimeline build(GameRecord record) {
+        int size = record.size();
+        Game game = new Game(size);
+        byte[] cells = new byte[size * size];
+
+        int[] deltaStart = new int[record.length() + 1];
+        int[] deltas = new int[record.length() * 2 + 16];
+        byte[] colors = new byte[record.length()];
+        int[] captures = new int[record.length() * 2];
+        byte[][] keyframes = new byte[record.length() / KEYFRAME_INTERVAL + 1][];
+        keyframes[0] = pack(cells);
+
+        int move = 0, used = 0;
+        for (; move < record.length(); move++) {
+            Color color = record.getColor(move);
+            int point = record.isPass(move) ? GameRecord.PASS : record.getRow(move) * size + record.getCol(move);
+            if (!record.play(game, move))
+                break;
+
+            int numCaptured = point == GameRecord.PASS ? 0 : game.getBoard().getNumCaptured();
+            if (used + 2 + numCaptured > deltas.length)
+                deltas = Arrays.copyOf(deltas, Math.max(deltas.length * 2, used + 2 + numCaptured));
+            deltaStart[move] = used;
+            deltas[used++] = point;
+            deltas[used++] = numCaptured;
+            for (int n = 0; n < numCaptured; n++) {
+                int captured = game.getBoard().getCaptured(n);
+                deltas[used++] = captured;
+                cells[captured] = GameSnapshot.EMPTY;
+            }
+
+            colors[move] = GameSnapshot.toCell(color);
+            if (point != GameRecord.PASS)
+                cells[point] = colors[move];
+            captures[2 * move]     = game.getPlayers()[0].getScore();
+            captures[2 * move + 1] = game.getPlayers()[1].getScore();
+
+            if ((move + 1) % KEYFRAME_INTERVAL == 0)
+                keyframes[(move + 1) / KEYFRAME_INTERVAL] = pack(cells);
+        }
+        deltaStart[move] = used;
+
+        return new GameTimeline(size, move, Arrays.copyOf(keyframes, move / KEYFRAME_INTERVAL + 1), deltaStart,
+                                Arrays.copyOf(deltas, used), Arrays.copyOf(colors, move), Arrays.copyOf(captures, move * 2));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public GameSnapshot positionAt(int moves) {    // the position after the given number of moves
+        moves = Math.max(0, Math.min(moves, length));
+        int keyframe = moves / KEYFRAME_INTERVAL;
+        byte[] cells = unpack(keyframes[keyframe]);
+
+        for (int move = keyframe * KEYFRAME_INTERVAL; move < moves; move++) {
+            int at = deltaStart[move];
+            int point = deltas[at], numCaptured = deltas[at + 1];
+            for (int n = 0; n < numCaptured; n++)
+                cells[deltas[at + 2 + n]] = GameSnapshot.EMPTY;
+            if (point != GameRecord.PASS)
+                cells[point] = colors[move];
+        }
+
+        int[] scores = moves == 0 ? new int[2] : new int[]{captures[2 * (moves - 1)], captures[2 * (moves - 1) + 1]};
+        int turn = moves == 0 ? 0 : colors[moves - 1] == GameSnapshot.BLACK ? 1 : 0;
+        boolean lastTurnPassed = moves > 0 && deltas[deltaStart[moves - 1]] == GameRecord.PASS;
+        return new GameSnapshot(size, cells, turn, scores, -1, -1, -1, lastTurnPassed, moves);
+    }
+
+    public int getMovePoint(int move) {         // row * size + col of the given move (0-based), or GameRecord.PASS
+        return deltas[deltaStart[move]];
+    }
+
+    private byte[] unpack(byte[] packed) {
+        byte[] cells = new byte[size * size];
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = (byte) ((packed[i / 4] >> ((i % 4) * 2)) & 3);
+        return cells;
+    }
+
+    private static byte[] pack(byte[] cells) {
+        byte[] packed = new byte[(cells.length + 3) / 4];
+        for (int i = 0; i < cells.length; i++)
+            packed[i / 4] |= cells[i] << ((i % 4) * 2);
+        return packed;
+    }
+
+}
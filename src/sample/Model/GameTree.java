@@ -0,0 +1,242 @@
+package sample.Model;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// A game with variations. Every node holds only its move (a packed point or Board.PASS) and a
+// link to its parent, so variations share everything up to where they branch and a node costs a
+// few dozen bytes. A node's position is never stored with it: it is rebuilt by replaying the
+// moves since the nearest ancestor whose position is cached. Positions are kept in an LRU cache
+// of at most maxCached entries, plus the root's, so memory stays bounded however big the tree
+// gets; on a long replay every CACHE_EVERY-th position along the way is cached as well, so the
+// next look near there is short. Not thread-safe, like Game.
+public class GameTree {
+
+    public static final int CACHE_EVERY = 16;
+
+    public static final class Node {
+
+        private final Node parent;
+        private final int move;                 // row * size + col, Board.PASS, or Board.NONE for the root
+        private final int depth;
+        private List<Node> children;            // null until the first child; the first child is the main line
+        private boolean pruned;                 // cut off from the tree with its subtree
+
+        private Node(Node parent, int move) {
+            this.parent = parent;
+            this.move = move;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+        }
+
+        public Node getParent() {
+            return parent;
+        }
+
+        public int getMove() {
+            return move;
+        }
+
+        public boolean isPass() {
+            return move == Board.PASS;
+        }
+
+        public int getDepth() {                 // moves since the root
+            return depth;
+        }
+
+        public List<Node> getChildren() {
+            return children == null ? Collections.emptyList() : Collections.unmodifiableList(children);
+        }
+
+        public Node getChild(int move) {        // the child playing that move, or null
+            if (children != null)
+                for (Node child : children)
+                    if (child.move == move)
+                        return child;
+            return null;
+        }
+
+        private boolean isIn(Node ancestor) {   // in ancestor's subtree, ancestor included
+            Node node = this;
+            while (node != null && node.depth > ancestor.depth) {
+                if (node.pruned)
+                    return false;
+                node = node.parent;
+            }
+            return node == ancestor;
+        }
+    }
+
+    private final Node root = new Node(null, Board.NONE);
+    private final GameSnapshot rootPosition;
+    private final Map<Node, GameSnapshot> cache;
+    private final Game game;                    // scratch game positions are replayed on
+    private Node current = root;
+    private int nodes = 1;
+
+    public GameTree(int size, int maxCached) {
+        this(new Game(size).snapshot(), maxCached);
+    }
+
+    public GameTree(GameSnapshot start, int maxCached) {
+        if (maxCached < 1)
+            throw new IllegalArgumentException("maxCached must be at least 1");
+        this.rootPosition = start;
+        this.game = new Game(start.size());
+        this.cache = new LinkedHashMap<Node, GameSnapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Node, GameSnapshot> eldest) {
+                return size() > maxCached;
+            }
+        };
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    public Node getCurrent() {
+        return current;
+    }
+
+    public int size() {                         // nodes in the tree, the root included
+        return nodes;
+    }
+
+    public int cachedPositions() {
+        return cache.size();
+    }
+
+    public GameSnapshot getPosition() {
+        return getPosition(current);
+    }
+
+    public GameSnapshot getPosition(Node node) {
+        if (node == root)
+            return rootPosition;
+        GameSnapshot cached = cache.get(node);
+        return cached != null ? cached : materialize(node);
+    }
+
+    public boolean isOver(Node node) {          // two passes in a row: the game was scored there, and nothing follows
+        if (!node.isPass())
+            return false;
+        return node.parent == root ? rootPosition.isLastTurnPassed() : node.parent.isPass();
+    }
+
+    public boolean isLegal(int move) {          // from the current node; Board.PASS is legal unless the game is over
+        if (isOver(current))
+            return false;
+        if (move == Board.PASS)
+            return true;
+        int size = rootPosition.size();
+        if (move < 0 || move >= size * size)
+            return false;
+        game.restore(getPosition(current));
+        return game.isValidMove(move / size, move % size);
+    }
+
+    // Plays a move from the current node and makes its node current. A move already played from
+    // here follows the existing node; a new one starts a variation after the existing ones.
+    public Node play(int move) {
+        Node child = current.getChild(move);
+        if (child == null) {
+            if (!isLegal(move))
+                throw new IllegalArgumentException((isOver(current) ? "game over, no move " : "illegal move ") + move
+                                                   + " after " + current.depth + " moves");
+            child = new Node(current, move);
+            if (current.children == null)
+                current.children = new ArrayList<>(1);
+            current.children.add(child);
+            nodes++;
+        }
+        current = child;
+        return child;
+    }
+
+    public boolean back() {
+        if (current == root)
+            return false;
+        current = current.parent;
+        return true;
+    }
+
+    public boolean forward() {                  // along the main line
+        if (current.children == null)
+            return false;
+        current = current.children.get(0);
+        return true;
+    }
+
+    public void goTo(Node node) {
+        if (!node.isIn(root))
+            throw new IllegalArgumentException("node is not in this tree");
+        current = node;
+    }
+
+    public void promote(Node node) {            // makes node its parent's main line
+        if (node == root)
+            return;
+        List<Node> siblings = node.parent.children;
+        siblings.remove(node);
+        siblings.add(0, node);
+    }
+
+    // Removes node and everything after it. If the current node goes with it, its parent
+    // becomes current.
+    public void prune(Node node) {
+        if (node == root)
+            throw new IllegalArgumentException("can't prune the root");
+        if (!node.parent.children.remove(node))
+            return;
+        if (node.parent.children.isEmpty())
+            node.parent.children = null;
+        if (current.isIn(node))
+            current = node.parent;
+        nodes -= count(node);
+        cache.keySet().removeIf(n -> n.isIn(node));
+        node.pruned = true;
+    }
+
+    private int count(Node node) {
+        int n = 1;
+        if (node.children != null)
+            for (Node child : node.children)
+                n += count(child);
+        return n;
+    }
+
+    private GameSnapshot materialize(Node node) {
+        Node from = node;
+        GameSnapshot start = null;
+        while (start == null) {                 // walk up to the nearest position we have
+            from = from.parent;
+            start = from == root ? rootPosition : cache.get(from);
+        }
+
+        Node[] path = new Node[node.depth - from.depth];
+        for (Node n = node; n != from; n = n.parent)
+            path[n.depth - from.depth - 1] = n;
+
+        game.restore(start);
+        int size = start.size();
+        GameSnapshot position = null;
+        for (int i = 0; i < path.length; i++) {
+            Node step = path[i];
+            if (step.isPass()) {
+                game.passTurn();
+            } else {
+                game.playerMove(step.move / size, step.move % size);
+                game.nextTurn();
+            }
+            if (i == path.length - 1 || step.depth % CACHE_EVERY == 0) {
+                position = game.snapshot();
+                cache.put(step, position);
+            }
+        }
+        return position;
+    }
+
+}
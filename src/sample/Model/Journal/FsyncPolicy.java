@@ -0,0 +1,7 @@
+package sample.Model.Journal;
+
+public enum FsyncPolicy {
+    EVERY_BATCH,    // fsync after every group commit; nothing acknowledged by flush() is lost
+    INTERVAL,       // fsync at most once per interval; a crash can lose the last interval
+    NEVER           // leave it to the OS; survives a process crash but not a power failure
+}
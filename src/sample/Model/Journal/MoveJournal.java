@@ -0,0 +1,410 @@
+package sample.Model.Journal;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import sample.Model.Game;
+import sample.Model.GameSnapshot;
+
+// Write-ahead log of every accepted change to the games attached with Game.setJournal().
+// Records are queued by the game threads and written by a single writer thread in batches
+// (group commit), so one fsync covers every record that arrived while the previous batch was
+// being written. Each record is [length][crc][type][gameId][payload]; a torn tail is ignored on recovery.
+public class MoveJournal implements Closeable {
+
+    static final byte MOVE      = 1;
+    static final byte PASS      = 2;
+    static final byte NEXT_TURN = 3;
+    static final byte RESTART   = 4;
+    static final byte RESIZE    = 5;
+    static final byte GAME_OVER = 6;
+    static final byte SNAPSHOT  = 7;
+    static final byte END       = 8;
+    static final byte UNDO      = 9;
+    static final byte REDO      = 10;
+
+    static final int HEADER = 4 + 4;              // length + crc
+    private static final int MAX_BATCH = 4096;
+
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final int snapshotInterval;
+
+    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(1 << 16);    // full queue blocks producers
+    private final Thread writer;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+    private final Object progress = new Object();
+    private long submitted;                       // guarded by progress
+    private long durable;                         // guarded by progress
+    private IOException failure;                  // guarded by progress
+    private boolean closed;                       // guarded by progress
+
+    public MoveJournal(Path file) throws IOException {
+        this(file, FsyncPolicy.EVERY_BATCH, 0, 64);
+    }
+
+    public MoveJournal(Path file, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, int snapshotInterval) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.snapshotInterval = snapshotInterval;
+
+        writer = new Thread(this::writeLoop, "move-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void appendMove(long gameId, int row, int col) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = record(bytes, MOVE, gameId);
+        try {
+            out.writeShort(row);
+            out.writeShort(col);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        enqueue(bytes);
+    }
+
+    public void appendPass(long gameId) {
+        simpleRecord(PASS, gameId);
+    }
+
+    public void appendNextTurn(long gameId) {
+        simpleRecord(NEXT_TURN, gameId);
+    }
+
+    public void appendRestart(long gameId) {
+        simpleRecord(RESTART, gameId);
+    }
+
+    public void appendGameOver(long gameId) {
+        simpleRecord(GAME_OVER, gameId);
+    }
+
+    // An undo or redo is journaled as the diff it made, see Game.applyChange(), so replaying it
+    // doesn't need the game's history, which recovery doesn't have.
+    public void appendUndo(long gameId, int[] cleared, int[] placed, byte[] placedColors, int[] counters) {
+        changeRecord(UNDO, gameId, cleared, placed, placedColors, counters);
+    }
+
+    public void appendRedo(long gameId, int[] cleared, int[] placed, byte[] placedColors, int[] counters) {
+        changeRecord(REDO, gameId, cleared, placed, placedColors, counters);
+    }
+
+    private void changeRecord(byte type, long gameId, int[] cleared, int[] placed, byte[] placedColors, int[] counters) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 3 * (cleared.length + placed.length));
+        DataOutputStream out = record(bytes, type, gameId);
+        try {
+            out.writeShort(cleared.length);
+            for (int p : cleared)
+                out.writeShort(p);
+            out.writeShort(placed.length);
+            for (int n = 0; n < placed.length; n++) {
+                out.writeShort(placed[n]);
+                out.writeByte(placedColors[n]);
+            }
+            out.writeByte(counters.length);
+            for (int c : counters)
+                out.writeInt(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        enqueue(bytes);
+    }
+
+    public void appendEnd(long gameId) {           // the game is finished for good and will not be recovered
+        simpleRecord(END, gameId);
+    }
+
+    public void appendResize(long gameId, int size) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = record(bytes, RESIZE, gameId);
+        try {
+            out.writeShort(size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        enqueue(bytes);
+    }
+
+    public void appendSnapshot(long gameId, GameSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + snapshot.size() * snapshot.size() / 4);
+        DataOutputStream out = record(bytes, SNAPSHOT, gameId);
+        try {
+            snapshot.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        enqueue(bytes);
+    }
+
+    private void simpleRecord(byte type, long gameId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        record(bytes, type, gameId);
+        enqueue(bytes);
+    }
+
+    private DataOutputStream record(ByteArrayOutputStream bytes, byte type, long gameId) {
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0);                        // length and crc are filled in by enqueue()
+            out.writeInt(0);
+            out.writeByte(type);
+            out.writeLong(gameId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    private void enqueue(ByteArrayOutputStream bytes) {
+        byte[] record = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record, HEADER, record.length - HEADER);
+        ByteBuffer.wrap(record).putInt(record.length - HEADER).putInt((int) crc.getValue());
+
+        synchronized (progress) {                   // the writer doesn't stop while a submitted record is on its way
+            checkOpen();
+            submitted++;
+        }
+        try {
+            while (!queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+                synchronized (progress) {           // a failed writer never empties the queue again
+                    if (failure != null)
+                        throw new UncheckedIOException("journal write failed", failure);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while appending to journal", e);
+        }
+    }
+
+    private void checkOpen() {                      // holding progress
+        if (failure != null)
+            throw new UncheckedIOException("journal write failed", failure);
+        if (closed)
+            throw new IllegalStateException("journal is closed");
+    }
+
+    public void flush() throws IOException {       // blocks until everything appended so far is written (and synced under EVERY_BATCH)
+        synchronized (progress) {
+            long target = submitted;
+            while (durable < target && failure == null) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            if (failure != null)
+                throw failure;
+        }
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>(MAX_BATCH);
+        long lastSync = System.currentTimeMillis();
+        boolean unsynced = false;
+        long pollMillis = fsyncPolicy == FsyncPolicy.INTERVAL ? Math.max(1, Math.min(100, fsyncIntervalMillis)) : 100;
+
+        long taken = 0;
+
+        try {
+            while (!drained(taken)) {
+                byte[] first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (unsynced && fsyncPolicy == FsyncPolicy.INTERVAL && System.currentTimeMillis() - lastSync >= fsyncIntervalMillis) {
+                        channel.force(false);                   // don't leave an idle tail unsynced
+                        lastSync = System.currentTimeMillis();
+                        unsynced = false;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                taken += batch.size();
+
+                buffer.clear();
+                for (byte[] record : batch) {
+                    if (buffer.remaining() < record.length) {
+                        writeBuffer();
+                        if (buffer.capacity() < record.length)
+                            buffer = ByteBuffer.allocateDirect(record.length);
+                    }
+                    buffer.put(record);
+                }
+                writeBuffer();
+
+                long now = System.currentTimeMillis();
+                if (fsyncPolicy == FsyncPolicy.EVERY_BATCH || (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastSync >= fsyncIntervalMillis)) {
+                    channel.force(false);
+                    lastSync = now;
+                    unsynced = false;
+                } else {
+                    unsynced = true;
+                }
+
+                synchronized (progress) {
+                    durable += batch.size();
+                    progress.notifyAll();
+                }
+                batch.clear();
+            }
+            if (fsyncPolicy != FsyncPolicy.NEVER)
+                channel.force(false);
+        } catch (IOException e) {
+            synchronized (progress) {
+                failure = e;
+                progress.notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean drained(long taken) {          // closed, and every record submitted before that is taken
+        synchronized (progress) {
+            return closed && taken == submitted;
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (progress) {
+            closed = true;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (progress) {
+            if (failure != null)
+                throw failure;
+        }
+    }
+
+    // Rebuilds every game that was not ended from its latest snapshot plus the records after it.
+    // The recovered games are detached; re-attach them to a fresh journal file (which starts each
+    // game with a new snapshot) and the old file can then be deleted.
+    public static Map<Long, Game> recover(Path file) throws IOException {
+        Map<Long, GameSnapshot> snapshots = new HashMap<>();
+        Map<Long, List<byte[]>> tails = new LinkedHashMap<>();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.toFile()), 1 << 16))) {
+            while (true) {
+                byte[] record = readRecord(in);
+                if (record == null)
+                    break;
+
+                DataInputStream body = new DataInputStream(new ByteArrayInputStream(record));
+                byte type = body.readByte();
+                long gameId = body.readLong();
+
+                if (type == SNAPSHOT) {
+                    snapshots.put(gameId, GameSnapshot.read(body));
+                    tails.put(gameId, new ArrayList<>());
+                } else if (type == END) {
+                    snapshots.remove(gameId);
+                    tails.remove(gameId);
+                } else {
+                    tails.computeIfAbsent(gameId, id -> new ArrayList<>()).add(record);
+                }
+            }
+        }
+
+        Map<Long, Game> games = new LinkedHashMap<>();
+        for (Map.Entry<Long, List<byte[]>> entry : tails.entrySet()) {
+            Game game = new Game();
+            GameSnapshot snapshot = snapshots.get(entry.getKey());
+            if (snapshot != null)
+                game.restore(snapshot);
+            for (byte[] record : entry.getValue())
+                replay(game, record);
+            games.put(entry.getKey(), game);
+        }
+        return games;
+    }
+
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        int length, checksum;
+        try {
+            length = in.readInt();
+            checksum = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length <= 0 || length > (1 << 24))
+            return null;                                  // corrupt header
+
+        byte[] record = new byte[length];
+        try {
+            in.readFully(record);
+        } catch (EOFException e) {
+            return null;                                  // torn write at the tail
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, length);
+        return (int) crc.getValue() == checksum ? record : null;
+    }
+
+    private static void replayChange(Game game, DataInputStream body) throws IOException {
+        int[] cleared = new int[body.readShort()];
+        for (int n = 0; n < cleared.length; n++)
+            cleared[n] = body.readShort();
+        int[] placed = new int[body.readShort()];
+        byte[] placedColors = new byte[placed.length];
+        for (int n = 0; n < placed.length; n++) {
+            placed[n] = body.readShort();
+            placedColors[n] = body.readByte();
+        }
+        int[] counters = new int[body.readByte()];
+        for (int n = 0; n < counters.length; n++)
+            counters[n] = body.readInt();
+        game.applyChange(cleared, placed, placedColors, counters);
+    }
+
+    private static void replay(Game game, byte[] record) throws IOException {
+        DataInputStream body = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = body.readByte();
+        body.readLong();
+
+        switch (type) {
+            case MOVE:      game.playerMove(body.readShort(), body.readShort()); break;
+            case PASS:      game.passTurn(); break;
+            case NEXT_TURN: game.nextTurn(); break;
+            case RESTART:   game.restartGame(); break;
+            case RESIZE:    game.setBoardSize(body.readShort()); break;
+            case GAME_OVER: game.gameOver(); break;
+            case UNDO:
+            case REDO:      replayChange(game, body); break;
+            default:        throw new IOException("unknown journal record type " + type);
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+package sample.Model.Metrics;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+// Counters for the model's hot paths, published over JMX as sample.Model:type=EngineMetrics.
+// Off unless the JVM is started with -Dbetago.metrics=true. Every call site is guarded by
+//   if (EngineMetrics.ENABLED) ...
+// and ENABLED is a static final, so when it is off the JIT drops the guarded code entirely.
+// When it is on, recording is a LongAdder increment (striped, so game threads don't contend).
+public final class EngineMetrics implements EngineMetricsMBean {
+
+    public static final boolean ENABLED = Boolean.getBoolean("betago.metrics");
+
+    private static final LongAdder validMoveCalls = new LongAdder();
+    private static final LongAdder validMoveRejects = new LongAdder();
+    private static final LongAdder captures = new LongAdder();
+    private static final LongAdder floodFills = new LongAdder();
+    private static final LongAdder moves = new LongAdder();
+    private static final LatencyHistogram scoreBoard = new LatencyHistogram();
+    private static final Map<Session, Boolean> sessions = Collections.synchronizedMap(new WeakHashMap<>());    // a session goes when its game does
+    private static final AtomicLong sessionIds = new AtomicLong();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new EngineMetrics(), new ObjectName("sample.Model:type=EngineMetrics"));
+            } catch (Exception e) {
+                System.err.println("EngineMetrics: could not register MBean: " + e);
+            }
+        }
+    }
+
+    private EngineMetrics() {}
+
+    public static void validMoveChecked(boolean valid) {
+        validMoveCalls.increment();
+        if (!valid)
+            validMoveRejects.increment();
+    }
+
+    public static void stonesCaptured(int n) {
+        if (n > 0)
+            captures.add(n);
+    }
+
+    public static void floodFill() {
+        floodFills.increment();
+    }
+
+    public static void scoreBoardTook(long nanos) {
+        scoreBoard.record(nanos);
+    }
+
+    public static void movePlayed() {       // by any game, sessions or not
+        moves.increment();
+    }
+
+    public static Session newSession() {
+        Session session = new Session(sessionIds.incrementAndGet());
+        sessions.put(session, Boolean.TRUE);
+        return session;
+    }
+
+    public static final class Session {     // one per game being played, see Game.setMetricsEnabled(); moves counted from its first move
+
+        private final long id;
+        private final LongAdder moves = new LongAdder();
+        private volatile long firstMoveNanos;
+
+        private Session(long id) {
+            this.id = id;
+        }
+
+        public void movePlayed() {
+            if (firstMoveNanos == 0)
+                firstMoveNanos = System.nanoTime();
+            moves.increment();
+        }
+
+        public void close() {
+            sessions.remove(this);
+        }
+
+        public long getMoves() {
+            return moves.sum();
+        }
+
+        public double getMovesPerSecond() {
+            long first = firstMoveNanos;
+            double seconds = (System.nanoTime() - first) / 1e9;
+            return first == 0 || seconds <= 0 ? 0 : moves.sum() / seconds;
+        }
+    }
+
+    @Override
+    public long getValidMoveCalls() {
+        return validMoveCalls.sum();
+    }
+
+    @Override
+    public long getValidMoveRejects() {
+        return validMoveRejects.sum();
+    }
+
+    @Override
+    public long getCaptures() {
+        return captures.sum();
+    }
+
+    @Override
+    public long getFloodFills() {
+        return floodFills.sum();
+    }
+
+    @Override
+    public long getScoreBoardCount() {
+        return scoreBoard.getCount();
+    }
+
+    @Override
+    public double getScoreBoardMeanMicros() {
+        return scoreBoard.getMeanMicros();
+    }
+
+    @Override
+    public double getScoreBoardP50Micros() {
+        return scoreBoard.getPercentileMicros(50);
+    }
+
+    @Override
+    public double getScoreBoardP99Micros() {
+        return scoreBoard.getPercentileMicros(99);
+    }
+
+    @Override
+    public double getScoreBoardMaxMicros() {
+        return scoreBoard.getMaxMicros();
+    }
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    @Override
+    public String[] getSessionMovesPerSecond() {
+        List<String> rates = new ArrayList<>();
+        synchronized (sessions) {
+            for (Session session : sessions.keySet())
+                if (session.getMoves() > 0)
+                    rates.add(String.format("session %d: %d moves, %.1f moves/s", session.id, session.getMoves(), session.getMovesPerSecond()));
+        }
+        return rates.toArray(new String[0]);
+    }
+
+    @Override
+    public void reset() {
+        validMoveCalls.reset();
+        validMoveRejects.reset();
+        captures.reset();
+        floodFills.reset();
+        moves.reset();
+        scoreBoard.reset();
+    }
+
+}
@@ -0,0 +1,31 @@
+package sample.Model.Metrics;
+
+public interface EngineMetricsMBean {
+
+    long getValidMoveCalls();
+
+    long getValidMoveRejects();
+
+    long getCaptures();
+
+    long getFloodFills();
+
+    long getScoreBoardCount();
+
+    double getScoreBoardMeanMicros();
+
+    double getScoreBoardP50Micros();
+
+    double getScoreBoardP99Micros();
+
+    double getScoreBoardMaxMicros();
+
+    long getMoves();
+
+    int getActiveSessions();
+
+    String[] getSessionMovesPerSecond();
+
+    void reset();
+
+}
@@ -0,0 +1,72 @@
+package sample.Model.Metrics;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Durations in power-of-two nanosecond buckets: bucket b holds [2^(b-1), 2^b) ns. Recording is
+// a couple of striped adds, so concurrent recorders don't contend; percentiles are read back to
+// within a factor of two, which is plenty to see where time goes.
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 48;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int b = 0; b < BUCKETS; b++)
+            buckets[b] = new LongAdder();
+    }
+
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1e3 / n;
+    }
+
+    public double getMaxMicros() {
+        return maxNanos.get() / 1e3;
+    }
+
+    public double getPercentileMicros(double percentile) {     // upper bound of the bucket the percentile falls in
+        long[] counts = getBuckets();
+        long total = 0;
+        for (long c : counts)
+            total += c;
+        long rank = (long) Math.ceil(total * percentile / 100.0), seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank && seen > 0)
+                return (1L << b) / 1e3;
+        }
+        return 0;
+    }
+
+    public long[] getBuckets() {
+        long[] counts = new long[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++)
+            counts[b] = buckets[b].sum();
+        return counts;
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets)
+            bucket.reset();
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+}
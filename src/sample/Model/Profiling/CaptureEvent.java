@@ -0,0 +1,26 @@
+package sample.Model.Profiling;
+import jdk.jfr.*;
+
+@Name("betago.Capture")
+@Label("Capture")
+@Category({"BetaGo", "Model"})
+@Description("Board.captureStones")
+@Threshold("20 us")
+@StackTrace(false)
+public class CaptureEvent extends Event {
+
+    @Label("Board Size")
+    public int boardSize;
+
+    @Label("Stones Captured")
+    public int stonesCaptured;
+
+    @Label("Chains Checked")
+    @Description("Chains left without liberties that were looked at")
+    public int chainsChecked;
+
+    @Label("Position")
+    @Description("After the captured stones were removed")
+    public String position;
+
+}
@@ -0,0 +1,31 @@
+package sample.Model.Profiling;
+import jdk.jfr.*;
+
+@Name("betago.PlayerMove")
+@Label("Player Move")
+@Category({"BetaGo", "Model"})
+@Description("Game.playerMove, including validation, captures and the score estimate")
+@Threshold("100 us")
+@StackTrace(false)
+public class PlayerMoveEvent extends Event {
+
+    @Label("Board Size")
+    public int boardSize;
+
+    @Label("Move Number")
+    public int moveNumber;
+
+    @Label("Point")
+    public int point;           // row * size + col
+
+    @Label("Black")
+    public boolean black;
+
+    @Label("Stones Captured")
+    public int stonesCaptured;
+
+    @Label("Position")
+    @Description("Before the move")
+    public String position;
+
+}
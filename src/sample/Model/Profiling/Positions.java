@@ -0,0 +1,35 @@
+package sample.Model.Profiling;
+
+import javafx.scene.paint.Color;
+import sample.Model.Board;
+import sample.Model.Stone;
+
+// Positions in events are size * size characters, row by row: 'X' black, 'O' white, '.' empty.
+// Only built once an event is known to be committed.
+public final class Positions {
+
+    public static final char BLACK = 'X', WHITE = 'O', EMPTY = '.';
+
+    private Positions() {}
+
+    public static char[] cells(Board board) {
+        int size = board.size();
+        Stone[][] stones = board.getBoard();
+        char[] cells = new char[size * size];
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                cells[i * size + j] = toChar(stones[i][j] == null ? null : stones[i][j].getColor());
+        return cells;
+    }
+
+    public static String encode(Board board) {
+        return new String(cells(board));
+    }
+
+    public static char toChar(Color color) {
+        if (color == Color.BLACK) return BLACK;
+        if (color == Color.WHITE) return WHITE;
+        return EMPTY;
+    }
+
+}
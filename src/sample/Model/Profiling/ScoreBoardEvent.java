@@ -0,0 +1,24 @@
+package sample.Model.Profiling;
+import jdk.jfr.*;
+
+@Name("betago.ScoreBoard")
+@Label("Score Board")
+@Category({"BetaGo", "Model"})
+@Description("Board.scoreBoard")
+@StackTrace(false)
+public class ScoreBoardEvent extends Event {
+
+    @Label("Board Size")
+    public int boardSize;
+
+    @Label("Regions")
+    @Description("Connected regions of empty points filled")
+    public int regions;
+
+    @Label("Largest Region")
+    public int largestRegion;
+
+    @Label("Position")
+    public String position;
+
+}
@@ -0,0 +1,29 @@
+package sample.Model.Profiling;
+import jdk.jfr.*;
+
+@Name("betago.ValidMove")
+@Label("Move Validation")
+@Category({"BetaGo", "Model"})
+@Description("Board.isValidMove; off by default because it runs for every point of every turn")
+@Enabled(false)
+@Threshold("20 us")
+@StackTrace(false)
+public class ValidMoveEvent extends Event {
+
+    @Label("Board Size")
+    public int boardSize;
+
+    @Label("Point")
+    public int point;           // row * size + col
+
+    @Label("Valid")
+    public boolean valid;
+
+    @Label("Group Size")
+    @Description("Stones in the group the new stone joined")
+    public int groupSize;
+
+    @Label("Position")
+    public String position;     // see Positions
+
+}
@@ -0,0 +1,98 @@
+package sample.Model.Record;
+import java.util.Arrays;
+
+import javafx.scene.paint.Color;
+import sample.Model.Board;
+import sample.Model.Game;
+
+public class GameRecord {           // the moves of one game, as read from an .sgf file
+
+    public static final int PASS = Board.PASS;
+
+    private final int size;
+    private int[] points = new int[64];         // row * size + col, or PASS
+    private Color[] colors = new Color[64];
+    private int length;
+    private Color winner;                       // null if the record has no result or it is a draw
+    private int setupStones;                    // AB/AW/AE values, which the moves assume are on the board
+
+    public GameRecord(int size) {
+        this.size = size;
+    }
+
+    public void addMove(Color color, int row, int col) {
+        add(color, row * size + col);
+    }
+
+    public void addPass(Color color) {
+        add(color, PASS);
+    }
+
+    private void add(Color color, int point) {
+        if (length == points.length) {
+            points = Arrays.copyOf(points, length * 2);
+            colors = Arrays.copyOf(colors, length * 2);
+        }
+        points[length] = point;
+        colors[length] = color;
+        length++;
+    }
+
+    public void setWinner(Color winner) {
+        this.winner = winner;
+    }
+
+    public void setSetupStones(int setupStones) {
+        this.setupStones = setupStones;
+    }
+
+    public boolean hasSetupStones() {           // the moves don't start from an empty board, so replaying them is wrong
+        return setupStones > 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public Color getColor(int move) {
+        return colors[move];
+    }
+
+    public boolean isPass(int move) {
+        return points[move] == PASS;
+    }
+
+    public int getRow(int move) {
+        return points[move] / size;
+    }
+
+    public int getCol(int move) {
+        return points[move] % size;
+    }
+
+    public Color getWinner() {
+        return winner;
+    }
+
+    // Plays the next move of the record on a game that has followed it so far.
+    // Returns false if the move is not legal under this engine's rules.
+    public boolean play(Game game, int move) {
+        if (game.getCurrentPlayer().getColor() != colors[move])
+            game.nextTurn();
+
+        if (isPass(move)) {
+            game.passTurn();
+            return true;
+        }
+        if (!game.isValidMove(getRow(move), getCol(move)))
+            return false;
+        game.playerMove(getRow(move), getCol(move));
+        game.nextTurn();
+        return true;
+    }
+
+}
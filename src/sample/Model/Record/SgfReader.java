@@ -0,0 +1,140 @@
+package sample.Model.Record;
+import java.io.IOException;
+import java.io.Reader;
+
+import javafx.scene.paint.Color;
+
+// Reads the main line of an SGF file: board size (SZ), result (RE) and the B[]/W[] moves.
+// Variations are skipped. Setup stones (AB/AW/AE, as in handicap games) aren't replayed, but
+// they are counted on the record, so callers can tell its moves don't start from an empty board.
+// Every other property is ignored. Input that isn't a well-formed game tree is an IOException.
+public class SgfReader {
+
+    private final Reader in;
+    private int peeked = -2;
+
+    public SgfReader(Reader in) {
+        this.in = in;
+    }
+
+    public GameRecord read() throws IOException {
+        int size = 19;
+        Color winner = null;
+        GameRecord record = null;
+        int depth = 0;
+        boolean mainLineDone = false;
+
+        int setupStones = 0;
+        boolean started = false;
+
+        int c;
+        while ((c = next()) != -1) {
+            if (!started && c != '(' && !Character.isWhitespace(c))
+                throw new IOException("not an SGF game tree");
+            if (c == '(') {
+                started = true;
+                depth++;
+            } else if (c == ')') {
+                if (depth > 1)
+                    mainLineDone = true;                // the first variation continues the main line, later ones don't
+                if (--depth == 0)
+                    break;
+            } else if (Character.isUpperCase(c)) {
+                StringBuilder name = new StringBuilder().append((char) c);
+                while (Character.isUpperCase(peek()))
+                    name.append((char) next());
+
+                while (skipWhitespace() == '[') {
+                    String value = readValue();
+                    switch (name.toString()) {
+                        case "SZ":
+                            size = parseSize(value);
+                            break;
+                        case "AB":
+                        case "AW":
+                        case "AE":
+                            setupStones++;
+                            break;
+                        case "RE":
+                            winner = value.startsWith("B") ? Color.BLACK : value.startsWith("W") ? Color.WHITE : null;
+                            break;
+                        case "B":
+                        case "W":
+                            if (record == null)
+                                record = new GameRecord(size);
+                            if (!mainLineDone)
+                                addMove(record, name.charAt(0) == 'B' ? Color.BLACK : Color.WHITE, value, size);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+        }
+
+        if (!started)
+            throw new IOException("no game tree");
+        if (depth != 0)
+            throw new IOException("unbalanced parentheses");
+        if (record == null)
+            record = new GameRecord(size);
+        record.setWinner(winner);
+        record.setSetupStones(setupStones);
+        return record;
+    }
+
+    private static int parseSize(String value) throws IOException {
+        try {
+            int size = Integer.parseInt(value.contains(":") ? value.substring(0, value.indexOf(':')) : value.trim());
+            if (size < 2 || size > 25)
+                throw new IOException("unsupported board size " + size);
+            return size;
+        } catch (NumberFormatException e) {
+            throw new IOException("bad board size " + value);
+        }
+    }
+
+    private static void addMove(GameRecord record, Color color, String value, int size) throws IOException {
+        if (value.isEmpty() || (value.equals("tt") && size <= 19)) {
+            record.addPass(color);
+            return;
+        }
+        int row = value.length() == 2 ? value.charAt(1) - 'a' : -1, col = value.charAt(0) - 'a';
+        if (row < 0 || col < 0 || row >= size || col >= size)
+            throw new IOException("move " + value + " is off a " + size + "x" + size + " board");
+        record.addMove(color, row, col);
+    }
+
+    private String readValue() throws IOException {
+        next();                                             // '['
+        StringBuilder value = new StringBuilder();
+        int c;
+        while ((c = next()) != ']') {
+            if (c == '\\')
+                c = next();
+            if (c == -1)
+                throw new IOException("unterminated property value");
+            value.append((char) c);
+        }
+        return value.toString();
+    }
+
+    private int skipWhitespace() throws IOException {
+        while (Character.isWhitespace(peek()))
+            next();
+        return peek();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2)
+            peeked = in.read();
+        return peeked;
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        peeked = -2;
+        return c;
+    }
+
+}
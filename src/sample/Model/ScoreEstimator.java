@@ -0,0 +1,364 @@
+package sample.Model;
+import javafx.scene.paint.Color;
+import sample.Model.Metrics.EngineMetrics;
+
+// Keeps the territory count of scoreBoard() up to date as moves are played. Every empty point
+// belongs to a region of connected empty points, owned by black or white if only that colour
+// borders it. Each region keeps its points in a list and counts its (empty point, stone) pairs
+// per colour, so a move only adjusts the counts around the point played and the stones it
+// captured. Regions are never refilled whole:
+//  - a stone can only split its region if the empty points beside it aren't joined through the
+//    diagonal points around it. Then the pieces are searched from every side at once, and the
+//    search stops when all but one have met or run dry, so only the cut-off pieces are walked.
+//  - a captured stone joins the regions around it, and the smaller ones are relabelled.
+public class ScoreEstimator {
+
+    private static final byte EMPTY = 0, BLACK = 1, WHITE = 2;
+
+    private final Board board;
+    private final int size;
+    private final int[] region;         // by point: region id of an empty point, -1 for stones
+    private final int[] next, prev;     // by point: the other points of its region, circular
+    private final int[] regionSize;     // by region id
+    private final int[] regionHead;     // by region id: any one of its points
+    private final int[] blackEdges;     // by region id: (empty point, black stone) pairs
+    private final int[] whiteEdges;
+    private final int[] countedBlack;   // by region id: what the region adds to the totals now
+    private final int[] countedWhite;
+    private final int[] freeIds;
+    private int numFreeIds;
+
+    private final int[] capturedStamp;  // by point: a stone captured by this move, not yet taken off
+    private byte capturedColor;
+    private int stamp;
+    private final int[][] queue = new int[4][];     // split searches, one per side of the new stone
+    private final int[] queueHead = new int[4], queueTail = new int[4], root = new int[4];
+    private final boolean[] resolved = new boolean[4];
+    private final int[] visitStamp, visitedBy;
+    private int searchStamp;
+    private int blackTerritory, whiteTerritory;
+
+    ScoreEstimator(Board board) {
+        this.board = board;
+        this.size = board.size();
+        int area = size * size;
+        region = new int[area];
+        next = new int[area];
+        prev = new int[area];
+        regionSize = new int[area];
+        regionHead = new int[area];
+        blackEdges = new int[area];
+        whiteEdges = new int[area];
+        countedBlack = new int[area];
+        countedWhite = new int[area];
+        freeIds = new int[area];
+        capturedStamp = new int[area];
+        visitStamp = new int[area];
+        visitedBy = new int[area];
+        for (int s = 0; s < 4; s++)
+            queue[s] = new int[area];
+        recompute();
+    }
+
+    public int getBlackTerritory() {
+        return blackTerritory;
+    }
+
+    public int getWhiteTerritory() {
+        return whiteTerritory;
+    }
+
+    public int getTerritory(Color color) {
+        return color == Color.BLACK ? blackTerritory : color == Color.WHITE ? whiteTerritory : 0;
+    }
+
+    void recompute() {                                      // full pass; only for restarts and restored positions
+        stamp++;
+        blackTerritory = whiteTerritory = 0;
+        numFreeIds = 0;
+        for (int id = size * size - 1; id >= 0; id--)
+            freeIds[numFreeIds++] = id;
+        for (int p = 0; p < size * size; p++)
+            region[p] = cellAt(p) == EMPTY ? -2 : -1;       // -2: not in a region yet
+
+        int[] stack = queue[0];
+        for (int start = 0; start < size * size; start++) {
+            if (region[start] != -2)
+                continue;
+            if (EngineMetrics.ENABLED) EngineMetrics.floodFill();
+            int id = newRegion(start);
+            int top = 0;
+            stack[top++] = start;
+            while (top > 0) {
+                int p = stack[--top];
+                for (int d = 0; d < 4; d++) {
+                    int q = neighbor(p, d);
+                    if (q >= 0 && region[q] == -2) {
+                        addToRegion(q, id, start);
+                        stack[top++] = q;
+                    }
+                }
+            }
+            account(id);
+        }
+    }
+
+    void stonePlaced(int row, int col) {                    // after the move and its captures are on the board
+        int placed = row * size + col;
+        byte color = board.cell(placed);
+        capturedColor = color == BLACK ? WHITE : BLACK;
+        stamp++;
+        for (int n = 0; n < board.getNumCaptured(); n++)    // captured stones count as stones until taken off below
+            capturedStamp[board.getCaptured(n)] = stamp;
+
+        fill(placed, color);
+        for (int n = 0; n < board.getNumCaptured(); n++)
+            stoneRemoved(board.getCaptured(n));
+    }
+
+    void stoneTakenBack(int row, int col, Color color) {   // an undone move's stone is off the board, its captures not back yet
+        capturedColor = color == Color.BLACK ? BLACK : WHITE;
+        stamp++;
+        stoneRemoved(row * size + col);
+    }
+
+    void stoneRestored(int row, int col) {                  // a stone an undo put back on the board, with nothing captured
+        stamp++;
+        int p = row * size + col;
+        fill(p, board.cell(p));
+    }
+
+    private void fill(int placed, byte color) {             // placed leaves its region, which may split
+        int id = region[placed];
+        forget(id);
+        removeFromRegion(placed, id);
+        region[placed] = -1;
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(placed, d);
+            if (q >= 0 && cellAt(q) == EMPTY)
+                addEdges(id, color, 1);                     // q now borders the new stone
+        }
+        if (regionSize[id] == 0) {
+            freeIds[numFreeIds++] = id;
+        } else {
+            splitAround(placed, id);
+            account(id);
+        }
+    }
+
+    private void stoneRemoved(int p) {                      // p becomes empty and joins the regions next to it
+        capturedStamp[p] = 0;
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q >= 0 && cellAt(q) == EMPTY) {
+                forget(region[q]);
+                addEdges(region[q], capturedColor, -1);     // q no longer borders the stone at p
+            }
+        }
+
+        int id = newRegion(p);
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q >= 0 && cellAt(q) == EMPTY && region[q] != id)
+                id = merge(id, region[q]);
+        }
+        account(id);
+    }
+
+    private void splitAround(int p, int id) {
+        int row = p / size, col = p % size;
+        int searches = 0;
+        int[] searchOf = {-1, -1, -1, -1};
+        searchStamp++;
+        for (int d = 0; d < 4; d++) {                       // one search from each empty side
+            int q = neighbor(p, d);
+            if (q < 0 || cellAt(q) != EMPTY)
+                continue;
+            searchOf[d] = searches;
+            queue[searches][0] = q;
+            queueHead[searches] = 0;
+            queueTail[searches] = 1;
+            root[searches] = searches;
+            resolved[searches] = false;
+            visitStamp[q] = searchStamp;
+            visitedBy[q] = searches;
+            searches++;
+        }
+        for (int d = 0; d < 4; d++) {                       // sides joined around a corner are one piece already
+            int e = (d + 1) % 4;
+            int dr = d == 0 || e == 0 ? -1 : 1;             // N/E: up-right, E/S: down-right, S/W: down-left, W/N: up-left
+            int dc = d == 1 || e == 1 ? 1 : -1;
+            if (searchOf[d] >= 0 && searchOf[e] >= 0 && isEmpty(row + dr, col + dc))
+                union(searchOf[d], searchOf[e]);
+        }
+
+        while (countRoots(searches) > 1) {
+            for (int s = 0; s < searches; s++) {
+                if (resolved[find(s)] || queueHead[s] == queueTail[s])
+                    continue;
+                int x = queue[s][queueHead[s]++];
+                for (int d = 0; d < 4; d++) {
+                    int q = neighbor(x, d);
+                    if (q < 0 || cellAt(q) != EMPTY)
+                        continue;
+                    if (visitStamp[q] != searchStamp) {
+                        visitStamp[q] = searchStamp;
+                        visitedBy[q] = s;
+                        queue[s][queueTail[s]++] = q;
+                    } else if (find(visitedBy[q]) != find(s)) {
+                        union(s, visitedBy[q]);             // two sides are still connected
+                    }
+                }
+            }
+
+            for (int s = 0; s < searches; s++) {            // a piece whose searches all ran dry is a region of its own
+                if (find(s) != s || resolved[s] || countRoots(searches) <= 1)
+                    continue;
+                boolean dry = true;
+                for (int t = 0; t < searches; t++)
+                    if (find(t) == s && queueHead[t] != queueTail[t])
+                        dry = false;
+                if (dry) {
+                    splitOff(s, searches, id);
+                    resolved[s] = true;
+                }
+            }
+        }
+    }
+
+    private void splitOff(int piece, int searches, int from) {
+        int id = freeIds[--numFreeIds], first = -1;
+        regionSize[id] = blackEdges[id] = whiteEdges[id] = countedBlack[id] = countedWhite[id] = 0;
+        for (int s = 0; s < searches; s++) {
+            if (find(s) != piece)
+                continue;
+            for (int i = 0; i < queueTail[s]; i++) {
+                int x = queue[s][i];
+                removeFromRegion(x, from);
+                addToRegion(x, id, first);
+                if (first < 0)
+                    first = x;
+            }
+        }
+        account(id);
+    }
+
+    private int merge(int a, int b) {                       // the smaller region joins the larger
+        forget(a);
+        forget(b);
+        int into = regionSize[a] >= regionSize[b] ? a : b, from = into == a ? b : a;
+        int start = regionHead[from], x = start;
+        do {
+            region[x] = into;
+            x = next[x];
+        } while (x != start);
+
+        int at = regionHead[into];
+        int afterAt = next[at], afterStart = next[start];   // splice the two circular lists
+        next[at] = afterStart;
+        prev[afterStart] = at;
+        next[start] = afterAt;
+        prev[afterAt] = start;
+        regionSize[into] += regionSize[from];
+        blackEdges[into] += blackEdges[from];
+        whiteEdges[into] += whiteEdges[from];
+        freeIds[numFreeIds++] = from;
+        return into;
+    }
+
+    private int newRegion(int p) {
+        int id = freeIds[--numFreeIds];
+        regionSize[id] = blackEdges[id] = whiteEdges[id] = countedBlack[id] = countedWhite[id] = 0;
+        addToRegion(p, id, -1);
+        return id;
+    }
+
+    private void addToRegion(int p, int id, int after) {    // after: a point already in the region, -1 for its first point
+        if (after < 0) {
+            next[p] = prev[p] = p;
+            regionHead[id] = p;
+        } else {
+            next[p] = next[after];
+            prev[p] = after;
+            prev[next[after]] = p;
+            next[after] = p;
+        }
+        region[p] = id;
+        regionSize[id]++;
+        countEdges(p, id, 1);
+    }
+
+    private void removeFromRegion(int p, int id) {
+        if (regionHead[id] == p)
+            regionHead[id] = next[p];
+        next[prev[p]] = next[p];
+        prev[next[p]] = prev[p];
+        regionSize[id]--;
+        countEdges(p, id, -1);
+    }
+
+    private void countEdges(int p, int id, int sign) {      // the pairs between empty point p and the stones next to it
+        for (int d = 0; d < 4; d++) {
+            int q = neighbor(p, d);
+            if (q >= 0 && cellAt(q) != EMPTY)
+                addEdges(id, cellAt(q), sign);
+        }
+    }
+
+    private void addEdges(int id, byte color, int n) {
+        if (color == BLACK) blackEdges[id] += n;
+        else                whiteEdges[id] += n;
+    }
+
+    private void forget(int id) {                           // take a region out of the totals before changing it
+        blackTerritory -= countedBlack[id];
+        whiteTerritory -= countedWhite[id];
+        countedBlack[id] = countedWhite[id] = 0;
+    }
+
+    private void account(int id) {
+        forget(id);
+        if (blackEdges[id] > 0 && whiteEdges[id] == 0) countedBlack[id] = regionSize[id];
+        if (whiteEdges[id] > 0 && blackEdges[id] == 0) countedWhite[id] = regionSize[id];
+        blackTerritory += countedBlack[id];
+        whiteTerritory += countedWhite[id];
+    }
+
+    private int find(int s) {
+        while (root[s] != s)
+            s = root[s];
+        return s;
+    }
+
+    private void union(int s, int t) {
+        int a = find(s), b = find(t);
+        if (a != b)
+            root[Math.max(a, b)] = Math.min(a, b);
+    }
+
+    private int countRoots(int searches) {                  // pieces not yet known to be joined or separate
+        int n = 0;
+        for (int s = 0; s < searches; s++)
+            if (find(s) == s && !resolved[s])
+                n++;
+        return n;
+    }
+
+    private byte cellAt(int p) {
+        return capturedStamp[p] == stamp ? capturedColor : board.cell(p);
+    }
+
+    private boolean isEmpty(int row, int col) {
+        return row >= 0 && col >= 0 && row < size && col < size && cellAt(row * size + col) == EMPTY;
+    }
+
+    private int neighbor(int p, int d) {                    // N, E, S, W; -1 off the board
+        switch (d) {
+            case 0:  return p >= size ? p - size : -1;
+            case 1:  return p % size < size - 1 ? p + 1 : -1;
+            case 2:  return p < size * (size - 1) ? p + size : -1;
+            default: return p % size > 0 ? p - 1 : -1;
+        }
+    }
+
+}
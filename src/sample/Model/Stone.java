@@ -1,41 +1,39 @@
 package sample.Model;
-import java.util.List;
-import java.util.LinkedList;
 import java.util.Set;
 import javafx.scene.paint.Color;
+import sample.Model.Metrics.EngineMetrics;
 
 public class Stone {
 
     private Color color;
-    private List<Stone> adjacentStones;
     private int maxLiberties;
+    private final int row, col;         // stones stay on their point; Board reuses them in place
+    private final Board board;          // whose chain data says which stones are connected
 
-    Stone(Color color, int maxLiberties) {
+    Stone(Color color, int maxLiberties, int row, int col, Board board) {
         this.color = color;
         this.maxLiberties = maxLiberties;
-        this.adjacentStones = new LinkedList<>();
+        this.row = row;
+        this.col = col;
+        this.board = board;
     }
 
-    public List<Stone> getAdjacentStones() {
-        return adjacentStones;
+    void reset(Color color, int maxLiberties) {         // reuse this stone for a new placement without allocating
+        this.color = color;
+        this.maxLiberties = maxLiberties;
     }
 
     public Color getColor() {
         return color;
     }
 
-    public static int getNumLiberties(Stone s, Set<Stone> visited) { // pass visited set down recursive calls
-        if(s == null || visited.contains(s))                         // to make sure we visit each node only once
-            return 0;                                                // and don't get stuck in a cycle
-
-        visited.add(s);
-        int numLiberties = (s.maxLiberties - s.getAdjacentStones().size());
-
-        for(Stone adjacentStone : s.getAdjacentStones())
-            if(adjacentStone.getColor() == s.getColor())
-                numLiberties += getNumLiberties(adjacentStone, visited);
+    public static int getNumLiberties(Stone s, Set<Stone> visited) { // stones already in visited count for nothing, so
+        if(s == null || visited.contains(s))                         // a caller going over several stones counts
+            return 0;                                                // each group once
+        if (EngineMetrics.ENABLED && visited.isEmpty()) EngineMetrics.floodFill();
 
-        return numLiberties;
+        s.board.markChain(s.row, s.col, visited);                   // the liberties of its group, from Board's chains
+        return s.board.libertiesAt(s.row, s.col);
     }
 
-}
\ No newline at end of file
+}
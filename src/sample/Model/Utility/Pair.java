@@ -1,4 +1,5 @@
 package sample.Model.Utility;
+import java.util.Objects;
 
 public class Pair<K, V> {
 
@@ -20,8 +21,15 @@ public class Pair<K, V> {
 
     @Override
     public boolean equals(Object o) {
-        Pair pair = (Pair) o;
-        return o != null && key.equals( pair.key ) && value.equals( pair.value );
+        if (!(o instanceof Pair))
+            return false;
+        Pair<?, ?> pair = (Pair<?, ?>) o;
+        return Objects.equals(key, pair.key) && Objects.equals(value, pair.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, value);
     }
 
 }
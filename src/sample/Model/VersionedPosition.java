@@ -0,0 +1,27 @@
+package sample.Model;
+
+// A position a Game published, see Game.setPublishing(). Immutable, so it can be handed to any
+// number of reader threads; the version goes up by one with every change the game publishes.
+public final class VersionedPosition {
+
+    private final long version;
+    private final GameSnapshot snapshot;
+
+    VersionedPosition(long version, GameSnapshot snapshot) {
+        this.version = version;
+        this.snapshot = snapshot;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public boolean isNewerThan(VersionedPosition other) {      // other may be null
+        return other == null || version > other.version;
+    }
+
+}
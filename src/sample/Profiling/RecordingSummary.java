@@ -0,0 +1,96 @@
+package sample.Profiling;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+// Summarises the betago.* events of a flight recording: per event type the count and duration
+// percentiles, then the slowest events with the position they ran on, printed as a board and as
+// SGF setup properties so the position can be loaded and reproduced.
+//
+//   java -XX:StartFlightRecording:filename=game.jfr ... sample.Main
+//   java sample.Profiling.RecordingSummary game.jfr [slowest: 10]
+//
+// ValidMove events are off by default; turn them on with a .jfc file or
+//   -XX:StartFlightRecording:filename=game.jfr,+betago.ValidMove#enabled=true   (JDK 17+)
+public class RecordingSummary {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: RecordingSummary <recording.jfr> [slowest: 10]");
+            System.exit(1);
+        }
+        summarize(Paths.get(args[0]), args.length > 1 ? Integer.parseInt(args[1]) : 10, System.out);
+    }
+
+    public static void summarize(Path recording, int slowest, PrintStream out) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>();
+        PriorityQueue<RecordedEvent> slowestEvents = new PriorityQueue<>(Comparator.comparing(RecordedEvent::getDuration));
+
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (!type.startsWith("betago."))
+                    continue;
+                durations.computeIfAbsent(type, t -> new ArrayList<>()).add(event.getDuration().toNanos());
+                slowestEvents.add(event);
+                if (slowestEvents.size() > slowest)
+                    slowestEvents.poll();                                   // keep only the slowest n
+            }
+        }
+
+        out.printf("%-20s %8s %10s %10s %10s %10s%n", "event", "count", "total ms", "p50 us", "p99 us", "max us");
+        for (Map.Entry<String, List<Long>> entry : durations.entrySet()) {
+            List<Long> nanos = entry.getValue();
+            Collections.sort(nanos);
+            long total = 0;
+            for (long n : nanos)
+                total += n;
+            out.printf("%-20s %8d %10.1f %10.1f %10.1f %10.1f%n", entry.getKey(), nanos.size(), total / 1e6,
+                       percentile(nanos, 50) / 1e3, percentile(nanos, 99) / 1e3, nanos.get(nanos.size() - 1) / 1e3);
+        }
+
+        List<RecordedEvent> events = new ArrayList<>(slowestEvents);
+        events.sort(Comparator.comparing((RecordedEvent e) -> e.getDuration()).reversed());
+        for (RecordedEvent event : events)
+            printEvent(event, out);
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(sorted.size() * percentile / 100.0) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static void printEvent(RecordedEvent event, PrintStream out) {
+        Duration duration = event.getDuration();
+        out.printf("%n%s  %.1f us  at %s%n", event.getEventType().getName(), duration.toNanos() / 1e3, event.getStartTime());
+        for (String field : new String[]{"moveNumber", "point", "black", "valid", "stonesCaptured", "chainsChecked", "groupSize", "regions", "largestRegion"})
+            if (event.hasField(field))
+                out.printf("  %s: %s%n", field, event.getValue(field));
+
+        if (!event.hasField("position") || event.getString("position") == null)
+            return;
+        String position = event.getString("position");
+        int size = (int) Math.round(Math.sqrt(position.length()));
+        for (int row = 0; row < size; row++)
+            out.println("  " + position.substring(row * size, (row + 1) * size));
+        out.println("  " + toSgf(position, size));
+    }
+
+    static String toSgf(String position, int size) {        // setup properties, e.g. (;SZ[9]AB[cc]AW[dc])
+        StringBuilder black = new StringBuilder(), white = new StringBuilder();
+        for (int p = 0; p < position.length(); p++) {
+            StringBuilder to = position.charAt(p) == 'X' ? black : position.charAt(p) == 'O' ? white : null;
+            if (to != null)
+                to.append('[').append((char) ('a' + p % size)).append((char) ('a' + p / size)).append(']');
+        }
+        return "(;SZ[" + size + "]" + (black.length() > 0 ? "AB" + black : "") + (white.length() > 0 ? "AW" + white : "") + ")";
+    }
+
+}
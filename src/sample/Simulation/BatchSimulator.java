@@ -0,0 +1,204 @@
+package sample.Simulation;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javafx.scene.paint.Color;
+import sample.Model.Game;
+import sample.Model.Stone;
+
+// Plays batches of computer-vs-computer games with no UI, once per thread count, and reports
+// how throughput, allocation and GC time scale with the threads. Each thread keeps one Game and
+// restarts it between games, playing through playerMove/nextTurn, passTurn and gameOver.
+//
+//   java sample.Simulation.BatchSimulator [games: 2000] [threads: 1,2,4,...,cores] [size: 9] [policy: random|capture] [seed: 1]
+//
+// random plays a random legal move that doesn't fill the player's own eye; capture takes a
+// group in atari when it can and otherwise plays like random. A player with no such move passes.
+public class BatchSimulator {
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int size;
+    private final boolean capture;
+    private final long seed;
+
+    public BatchSimulator(int size, String policy, long seed) {
+        if (!policy.equals("random") && !policy.equals("capture"))
+            throw new IllegalArgumentException("policy must be random or capture");
+        this.size = size;
+        this.capture = policy.equals("capture");
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int[] threadCounts = args.length > 1 ? parseCounts(args[1]) : defaultCounts();
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 9;
+        String policy = args.length > 3 ? args[3] : "random";
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+
+        BatchSimulator simulator = new BatchSimulator(size, policy, seed);
+        simulator.run(games, 1);                                    // warm up the JIT before measuring
+
+        System.out.printf("%dx%d, %s, %d games per run, %d cores%n", size, size, policy, games, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%7s %10s %12s %10s %12s %8s %9s %8s%n", "threads", "games/s", "moves/s", "alloc MB/s", "bytes/move", "GC ms", "GC % wall", "speedup");
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            Result result = simulator.run(games, threads);
+            if (baseline == 0)
+                baseline = result.gamesPerSecond() / threads;          // per-thread rate of the first run
+            System.out.printf("%7d %10.0f %12.0f %10.1f %12.1f %8d %9.1f %8.2f%n", threads, result.gamesPerSecond(), result.movesPerSecond(),
+                              result.bytes / 1e6 / result.seconds(), (double) result.bytes / result.moves, result.gcMillis,
+                              result.gcMillis / 10.0 / result.seconds(), result.gamesPerSecond() / baseline);
+        }
+    }
+
+    private static int[] parseCounts(String list) {
+        String[] parts = list.split(",");
+        int[] counts = new int[parts.length];
+        for (int i = 0; i < parts.length; i++)
+            counts[i] = Integer.parseInt(parts[i].trim());
+        return counts;
+    }
+
+    private static int[] defaultCounts() {                          // 1, 2, 4, ... and the core count itself
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> counts = new ArrayList<>();
+        for (int n = 1; n < cores; n *= 2)
+            counts.add(n);
+        counts.add(cores);
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public Result run(int games, int threads) throws InterruptedException {
+        AtomicLong nextGame = new AtomicLong();
+        LongAdder moves = new LongAdder(), bytes = new LongAdder();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                long allocatedBefore = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+                Game game = new Game(size);
+                int[] liberties = new int[size * size];
+                long g;
+                while ((g = nextGame.getAndIncrement()) < games)
+                    moves.add(play(game, new SplittableRandom(seed + g), liberties));
+                bytes.add(THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore);
+            }, "simulator-" + t);
+        }
+
+        long gcBefore = gcMillis();
+        long start = System.nanoTime();
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+        long nanos = System.nanoTime() - start;
+        return new Result(games, moves.sum(), nanos, bytes.sum(), gcMillis() - gcBefore);
+    }
+
+    int play(Game game, SplittableRandom random, int[] liberties) {     // one game from the empty board; returns the moves played
+        game.restartGame();
+        int moves = 0, passes = 0;
+        while (passes < 2 && moves < size * size * 3) {                 // the cap only matters for endless ko fights
+            int p = capture ? captureMove(game, random, liberties) : randomMove(game, random);
+            if (p < 0) {
+                game.passTurn();                                        // the second pass in a row scores the game
+                passes++;
+            } else {
+                game.playerMove(p / size, p % size);
+                game.nextTurn();
+                passes = 0;
+            }
+            moves++;
+        }
+        if (passes < 2)
+            game.gameOver();
+        return moves;
+    }
+
+    private int randomMove(Game game, SplittableRandom random) {
+        int area = size * size, start = random.nextInt(area);
+        for (int k = 0; k < area; k++) {
+            int p = (start + k) % area;
+            if (!isOwnEye(game, p) && game.isValidMove(p / size, p % size))
+                return p;
+        }
+        return -1;
+    }
+
+    private int captureMove(Game game, SplittableRandom random, int[] liberties) {
+        Stone[][] board = game.getBoard().getBoard();
+        Color opponent = game.getCurrentPlayer().getColor() == Color.BLACK ? Color.WHITE : Color.BLACK;
+        game.getBoard().countLiberties(liberties);
+
+        int area = size * size, start = random.nextInt(area);
+        for (int k = 0; k < area; k++) {
+            int p = (start + k) % area, row = p / size, col = p % size;
+            if (board[row][col] != null)
+                continue;
+            boolean takes = inAtari(board, liberties, row - 1, col, opponent) || inAtari(board, liberties, row + 1, col, opponent)
+                            || inAtari(board, liberties, row, col - 1, opponent) || inAtari(board, liberties, row, col + 1, opponent);
+            if (takes && game.isValidMove(row, col))
+                return p;
+        }
+        return randomMove(game, random);
+    }
+
+    private boolean inAtari(Stone[][] board, int[] liberties, int row, int col, Color color) {
+        return row >= 0 && col >= 0 && row < size && col < size && board[row][col] != null
+               && board[row][col].getColor() == color && liberties[row * size + col] == 1;
+    }
+
+    private boolean isOwnEye(Game game, int p) {                    // every neighbour is the player's own stone or off the board
+        Stone[][] board = game.getBoard().getBoard();
+        Color color = game.getCurrentPlayer().getColor();
+        int row = p / size, col = p % size;
+        return board[row][col] == null
+               && isColor(board, row - 1, col, color) && isColor(board, row + 1, col, color)
+               && isColor(board, row, col - 1, color) && isColor(board, row, col + 1, color);
+    }
+
+    private boolean isColor(Stone[][] board, int row, int col, Color color) {
+        return row < 0 || col < 0 || row >= size || col >= size
+               || (board[row][col] != null && board[row][col].getColor() == color);
+    }
+
+    private static long gcMillis() {                                // over all collectors, since the JVM started
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            total += Math.max(0, gc.getCollectionTime());
+        return total;
+    }
+
+    public static final class Result {
+
+        public final int games;
+        public final long moves, nanos, bytes, gcMillis;
+
+        Result(int games, long moves, long nanos, long bytes, long gcMillis) {
+            this.games = games;
+            this.moves = moves;
+            this.nanos = nanos;
+            this.bytes = bytes;
+            this.gcMillis = gcMillis;
+        }
+
+        public double seconds() {
+            return nanos / 1e9;
+        }
+
+        public double gamesPerSecond() {
+            return games / seconds();
+        }
+
+        public double movesPerSecond() {
+            return moves / seconds();
+        }
+    }
+
+}
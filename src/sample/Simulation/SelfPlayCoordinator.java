@@ -0,0 +1,241 @@
+package sample.Simulation;
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Spreads self-play over worker processes, on this host or on others on the LAN. The games are
+// cut into batches that workers pull over a line-based text protocol on a TCP socket:
+//   worker       HELLO <name>
+//   coordinator  BATCH <id> <first game> <games> <size> <policy> <seed>, or DONE when all are in
+//   worker       RESULT <id> <n>, then n result lines; the coordinator answers with the next BATCH
+// Every game is seeded by its number, so a batch gives the same results wherever it runs. A
+// worker that disconnects, or stays silent longer than the batch timeout, has its batch put back
+// at the front of the queue for the next worker; a batch that comes back twice is kept once.
+// Each finished batch is written to its own file, and once all are in they are merged into the
+// output in game order, one line per game:
+//   game,moves,black,white        (scores: captures plus territory)
+//
+//   java sample.Simulation.SelfPlayCoordinator <games> <output.csv> [local workers: 0] [port: 7300] [batch: 100] [size: 9] [policy: random] [seed: 1]
+//   java sample.Simulation.SelfPlayWorker <host> [port: 7300] [threads: cores]
+//
+// Local workers are started as child processes with one thread each, so throughput can be
+// compared across worker counts on one host.
+public class SelfPlayCoordinator {
+
+    public static final int DEFAULT_PORT = 7300;
+    static final String HEADER = "game,moves,black,white";
+
+    private final int size;
+    private final String policy;
+    private final long seed;
+    private final int batchTimeoutMillis;
+    private final int numBatches;
+    private final BlockingDeque<Batch> pending = new LinkedBlockingDeque<>();
+    private final ConcurrentHashMap<Integer, Boolean> done = new ConcurrentHashMap<>();
+    private final CountDownLatch finished;
+    private final AtomicInteger workers = new AtomicInteger(), reassigned = new AtomicInteger();
+    private final ExecutorService connections = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "self-play-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ServerSocket server;
+    private Path output, parts;
+
+    public SelfPlayCoordinator(int games, int batchSize, int size, String policy, long seed, int batchTimeoutMillis) {
+        new BatchSimulator(size, policy, seed);                         // rejects a bad policy before any worker sees it
+        this.size = size;
+        this.policy = policy;
+        this.seed = seed;
+        this.batchTimeoutMillis = batchTimeoutMillis;
+        this.numBatches = (games + batchSize - 1) / batchSize;
+        this.finished = new CountDownLatch(numBatches);
+        for (int id = 0; id < numBatches; id++)
+            pending.add(new Batch(id, id * batchSize, Math.min(batchSize, games - id * batchSize)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: SelfPlayCoordinator <games> <output.csv> [local workers: 0] [port: 7300] [batch: 100] [size: 9] [policy: random] [seed: 1]");
+            System.exit(1);
+        }
+        int games = Integer.parseInt(args[0]);
+        Path output = Paths.get(args[1]);
+        int localWorkers = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_PORT;
+        int batch = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+        int size = args.length > 5 ? Integer.parseInt(args[5]) : 9;
+        String policy = args.length > 6 ? args[6] : "random";
+        long seed = args.length > 7 ? Long.parseLong(args[7]) : 1;
+
+        SelfPlayCoordinator coordinator = new SelfPlayCoordinator(games, batch, size, policy, seed, (int) TimeUnit.MINUTES.toMillis(10));
+        port = coordinator.start(port, output);
+        System.out.println("waiting for workers on port " + port);
+
+        long start = System.nanoTime();
+        List<Process> processes = new ArrayList<>();
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        for (int i = 0; i < localWorkers; i++)
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), SelfPlayWorker.class.getName(),
+                                             "localhost", String.valueOf(port), "1").inheritIO().start());
+
+        coordinator.awaitCompletion();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        for (Process process : processes)
+            process.waitFor();
+        System.out.printf("%d games in %.1f s: %.0f games/s from %d workers, %d batches reassigned; results in %s%n",
+                          games, seconds, games / seconds, coordinator.getWorkers(), coordinator.getReassigned(), output);
+    }
+
+    // Binds the port (0 for any free one) and starts handing out batches; returns the port.
+    // Finished batches are kept next to the output until they are merged into it.
+    public int start(int port, Path output) throws IOException {
+        this.output = output.toAbsolutePath();
+        parts = Files.createDirectories(this.output.resolveSibling(output.getFileName() + ".parts"));
+        server = new ServerSocket(port);
+        Thread acceptor = new Thread(this::accept, "self-play-coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server.getLocalPort();
+    }
+
+    public void awaitCompletion() throws IOException, InterruptedException {
+        finished.await();
+        server.close();
+        connections.shutdown();
+        merge();
+    }
+
+    public int getWorkers() {                   // workers that have connected so far
+        return workers.get();
+    }
+
+    public int getReassigned() {                // batches given out again after their worker failed
+        return reassigned.get();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                return;                                                 // closed once all batches are in
+            } catch (IOException e) {
+                System.err.println("accept failed: " + e.getMessage());
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Batch batch = null;
+        String name = socket.getRemoteSocketAddress().toString();
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)))) {
+            s.setSoTimeout(batchTimeoutMillis);
+            String hello = in.readLine();
+            if (hello == null || !hello.startsWith("HELLO "))
+                return;
+            name = hello.substring(6) + " at " + name;
+            workers.incrementAndGet();
+
+            while ((batch = nextBatch()) != null) {
+                out.println("BATCH " + batch.id + " " + batch.first + " " + batch.count + " " + size + " " + policy + " " + seed);
+                out.flush();
+
+                String[] result = readLine(in).split(" ");
+                if (result.length != 3 || !result[0].equals("RESULT") || Integer.parseInt(result[1]) != batch.id
+                    || Integer.parseInt(result[2]) != batch.count)
+                    throw new IOException("unexpected reply to batch " + batch.id + ": " + String.join(" ", result));
+                List<String> lines = new ArrayList<>(batch.count);
+                for (int i = 0; i < batch.count; i++)
+                    lines.add(readLine(in));
+                complete(batch, lines);
+                batch = null;
+            }
+            out.println("DONE");
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("worker " + name + " failed: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (batch != null && !done.containsKey(batch.id)) {
+                pending.addFirst(batch);                                // the next worker to ask gets it
+                reassigned.incrementAndGet();
+            }
+        }
+    }
+
+    private static String readLine(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null)
+            throw new EOFException("worker disconnected");
+        return line;
+    }
+
+    private Batch nextBatch() throws InterruptedException {        // null once every batch is in; waits while the last ones are out
+        while (finished.getCount() > 0) {
+            Batch batch = pending.poll(100, TimeUnit.MILLISECONDS);
+            if (batch != null && !done.containsKey(batch.id))
+                return batch;
+        }
+        return null;
+    }
+
+    private void complete(Batch batch, List<String> lines) throws IOException {
+        if (done.putIfAbsent(batch.id, Boolean.TRUE) != null)
+            return;                                                     // a reassigned batch came back twice
+        try {
+            Path part = parts.resolve(String.format("batch-%06d.csv", batch.id));
+            Path temp = parts.resolve(part.getFileName() + ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            done.remove(batch.id);
+            throw e;
+        }
+        finished.countDown();
+    }
+
+    private void merge() throws IOException {
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            for (int id = 0; id < numBatches; id++) {
+                Path part = parts.resolve(String.format("batch-%06d.csv", id));
+                for (String line : Files.readAllLines(part, StandardCharsets.UTF_8)) {
+                    out.write(line);
+                    out.newLine();
+                }
+            }
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+        for (int id = 0; id < numBatches; id++)
+            Files.delete(parts.resolve(String.format("batch-%06d.csv", id)));
+        Files.delete(parts);
+    }
+
+    private static final class Batch {
+
+        final int id, first, count;
+
+        Batch(int id, int first, int count) {
+            this.id = id;
+            this.first = first;
+            this.count = count;
+        }
+    }
+
+}
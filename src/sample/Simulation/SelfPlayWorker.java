@@ -0,0 +1,102 @@
+package sample.Simulation;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import sample.Model.Game;
+
+// Plays the batches a SelfPlayCoordinator hands out until it says DONE, spreading each batch
+// over its threads; see SelfPlayCoordinator for the protocol. Games are headless and each thread
+// reuses one Game per batch.
+//
+//   java sample.Simulation.SelfPlayWorker <host> [port: 7300] [threads: cores]
+public class SelfPlayWorker {
+
+    private final int threads;
+    private final ExecutorService pool;
+
+    public SelfPlayWorker(int threads) {
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "self-play-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: SelfPlayWorker <host> [port: 7300] [threads: cores]");
+            System.exit(1);
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : SelfPlayCoordinator.DEFAULT_PORT;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int batches = new SelfPlayWorker(threads).run(args[0], port);
+        System.out.println(name() + ": " + batches + " batches");
+    }
+
+    public int run(String host, int port) throws IOException, InterruptedException {      // returns the batches played
+        int batches = 0;
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)))) {
+            out.println("HELLO " + name());
+            out.flush();
+
+            String line;
+            while ((line = in.readLine()) != null && line.startsWith("BATCH ")) {
+                String[] batch = line.split(" ");
+                int id = Integer.parseInt(batch[1]), first = Integer.parseInt(batch[2]), count = Integer.parseInt(batch[3]);
+                String[] results = play(first, count, Integer.parseInt(batch[4]), batch[5], Long.parseLong(batch[6]));
+
+                out.println("RESULT " + id + " " + count);
+                for (String result : results)
+                    out.println(result);
+                out.flush();
+                batches++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return batches;
+    }
+
+    String[] play(int first, int count, int size, String policy, long seed) throws InterruptedException {
+        BatchSimulator simulator = new BatchSimulator(size, policy, seed);
+        String[] results = new String[count];
+        AtomicInteger next = new AtomicInteger();
+        Callable<Void> task = () -> {
+            Game game = new Game(size);
+            int[] liberties = new int[size * size];
+            int i;
+            while ((i = next.getAndIncrement()) < count) {
+                long number = first + i;
+                int moves = simulator.play(game, new SplittableRandom(seed + number), liberties);
+                results[i] = number + "," + moves + "," + game.getPlayers()[0].getScore() + "," + game.getPlayers()[1].getScore();
+            }
+            return null;
+        };
+
+        try {
+            for (Future<Void> future : pool.invokeAll(Collections.nCopies(Math.min(threads, count), task)))
+                future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("batch failed", e.getCause());
+        }
+        return results;
+    }
+
+    private static String name() {
+        try {
+            return InetAddress.getLocalHost().getHostName() + "/" + ProcessHandle.current().pid();
+        } catch (IOException e) {
+            return "worker/" + ProcessHandle.current().pid();
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+package sample.Training;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javafx.scene.paint.Color;
+import sample.Model.Board;
+import sample.Model.Game;
+import sample.Model.Record.GameRecord;
+import sample.Model.Record.SgfReader;
+import sample.Model.Stone;
+
+// Turns a directory of .sgf game records into training samples, one output file per record.
+//
+//   java sample.Training.TrainingDataExporter <sgf dir> <output dir> [threads] [symmetries: 1 or 8]
+//
+// Output file: "BGTD", version byte, plane count byte, then one sample per position and symmetry:
+//   byte size, byte side to move (1 black, 2 white), short move (row * size + col, -1 for pass),
+//   short ko point (-1 if none), byte result for the side to move (1 win, -1 loss, 0 unknown),
+//   then PLANES bit planes of size * size bits each, point i at bit i % 8 of byte i / 8:
+//   own stones, opponent stones, stones whose group has 1, 2, 3 and 4+ liberties.
+// Every file is replayed and written by one thread with fixed-size buffers, so memory stays flat
+// however big the corpus is, and files are spread over the threads.
+public class TrainingDataExporter {
+
+    static final int PLANES = 6;
+    private static final int VERSION = 1;
+
+    private final int threads;
+    private final int symmetries;
+    private final AtomicLong gamesExported = new AtomicLong();
+    private final AtomicLong gamesRejected = new AtomicLong();
+    private final AtomicLong gamesWithSetup = new AtomicLong();     // handicap and problem records, skipped
+    private final AtomicLong samplesWritten = new AtomicLong();
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    public TrainingDataExporter(int threads, int symmetries) {
+        if (symmetries != 1 && symmetries != 8)
+            throw new IllegalArgumentException("symmetries must be 1 or 8");
+        this.threads = threads;
+        this.symmetries = symmetries;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: TrainingDataExporter <sgf dir> <output dir> [threads] [symmetries: 1 or 8]");
+            System.exit(1);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int symmetries = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        TrainingDataExporter exporter = new TrainingDataExporter(threads, symmetries);
+        long start = System.nanoTime();
+        exporter.export(Paths.get(args[0]), Paths.get(args[1]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games (%d rejected, %d skipped for setup stones), %d samples in %.1f s: %.0f samples/s%n",
+                exporter.gamesExported.get(), exporter.gamesRejected.get(), exporter.gamesWithSetup.get(),
+                exporter.samplesWritten.get(), seconds, exporter.samplesWritten.get() / seconds);
+    }
+
+    public void export(Path input, Path output) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(threads * 2);            // don't queue up the whole corpus
+        ConcurrentLinkedQueue<Exception> failures = new ConcurrentLinkedQueue<>();
+
+        try (Stream<Path> files = Files.walk(input)) {
+            Iterator<Path> it = files.filter(f -> f.toString().endsWith(".sgf")).iterator();
+            while (it.hasNext()) {
+                Path file = it.next();
+                Path target = output.resolve(input.relativize(file).toString().replaceAll("\\.sgf$", ".bin"));
+                inFlight.acquire();
+                pool.execute(() -> {
+                    try {
+                        exportFile(file, target);
+                    } catch (Exception e) {
+                        failures.add(new IOException(file + ": " + e.getMessage(), e));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+
+        for (Exception e : failures)
+            System.err.println(e.getMessage());
+    }
+
+    public void exportFile(Path sgf, Path target) throws IOException {
+        GameRecord record;
+        try (Reader in = Files.newBufferedReader(sgf, StandardCharsets.ISO_8859_1)) {
+            record = new SgfReader(in).read();
+        }
+        if (record.hasSetupStones()) {                      // replaying from an empty board would give wrong positions
+            gamesWithSetup.incrementAndGet();
+            return;
+        }
+
+        if (target.getParent() != null)
+            Files.createDirectories(target.getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target), 1 << 16))) {
+            out.writeBytes("BGTD");
+            out.writeByte(VERSION);
+            out.writeByte(PLANES);
+            if (workers.get().write(record, out))
+                gamesExported.incrementAndGet();
+            else
+                gamesRejected.incrementAndGet();
+        }
+    }
+
+    public long getGamesExported() {
+        return gamesExported.get();
+    }
+
+    public long getGamesWithSetup() {
+        return gamesWithSetup.get();
+    }
+
+    public static int transform(int symmetry, int row, int col, int size) {        // the 8 rotations and reflections of the board
+        if ((symmetry & 1) != 0) col = size - 1 - col;
+        if ((symmetry & 2) != 0) row = size - 1 - row;
+        if ((symmetry & 4) != 0) {
+            int t = row;
+            row = col;
+            col = t;
+        }
+        return row * size + col;
+    }
+
+    private class Worker {                  // per-thread game and buffers, reused across files
+
+        private final Game game = new Game();
+        private int[] liberties = new int[0];
+        private byte[] cells = new byte[0];
+        private byte[] planes = new byte[0];
+
+        boolean write(GameRecord record, DataOutputStream out) throws IOException {
+            int size = record.size();
+            if (liberties.length != size * size) {
+                liberties = new int[size * size];
+                cells = new byte[size * size];
+                planes = new byte[PLANES * ((size * size + 7) / 8)];
+            }
+
+            Color winner = record.getWinner();
+            if (winner == null)
+                winner = scoreByReplay(record);
+
+            reset(size);
+            for (int move = 0; move < record.length(); move++) {
+                Color toMove = record.getColor(move);
+                if (game.getCurrentPlayer().getColor() != toMove)
+                    game.nextTurn();
+
+                int point = record.isPass(move) ? -1 : record.getRow(move) * size + record.getCol(move);
+                if (point >= 0 && !game.isValidMove(record.getRow(move), record.getCol(move)))
+                    return move > 0;                                // engine disagrees with the record; keep what we have
+
+                readPosition(size, toMove);
+                int ko = game.getKoPoint();
+                int result = winner == null ? 0 : winner == toMove ? 1 : -1;
+
+                for (int symmetry = 0; symmetry < symmetries; symmetry++) {
+                    out.writeByte(size);
+                    out.writeByte(toMove == Color.BLACK ? 1 : 2);
+                    out.writeShort(point < 0 ? -1 : transform(symmetry, point / size, point % size, size));
+                    out.writeShort(ko == Board.NONE ? -1 : transform(symmetry, ko / size, ko % size, size));
+                    out.writeByte(result);
+                    writePlanes(out, size, symmetry);
+                }
+                samplesWritten.addAndGet(symmetries);
+
+                record.play(game, move);
+            }
+            return true;
+        }
+
+        private Color scoreByReplay(GameRecord record) {
+            reset(record.size());
+            for (int move = 0; move < record.length(); move++)
+                if (!record.play(game, move))
+                    break;
+            game.gameOver();
+
+            int black = game.getPlayers()[0].getScore(), white = game.getPlayers()[1].getScore();
+            return black == white ? null : black > white ? Color.BLACK : Color.WHITE;
+        }
+
+        private void reset(int size) {
+            if (game.getBoardSize() != size)
+                game.setBoardSize(size);
+            game.restartGame();
+        }
+
+        private void readPosition(int size, Color toMove) {         // cells: 0 empty, 1 own, 2 opponent
+            Stone[][] stones = game.getBoard().getBoard();
+            for (int i = 0; i < size; i++)
+                for (int j = 0; j < size; j++)
+                    cells[i * size + j] = (byte) (stones[i][j] == null ? 0 : stones[i][j].getColor() == toMove ? 1 : 2);
+            game.getBoard().countLiberties(liberties);
+        }
+
+        private void writePlanes(DataOutputStream out, int size, int symmetry) throws IOException {
+            int planeBytes = (size * size + 7) / 8;
+            java.util.Arrays.fill(planes, (byte) 0);
+
+            for (int p = 0; p < size * size; p++) {
+                if (cells[p] == 0)
+                    continue;
+                int t = transform(symmetry, p / size, p % size, size);
+                int libertyPlane = 1 + Math.max(1, Math.min(liberties[p], 4));
+
+                setBit(cells[p] - 1, planeBytes, t);
+                setBit(libertyPlane, planeBytes, t);
+            }
+            out.write(planes, 0, PLANES * planeBytes);
+        }
+
+        private void setBit(int plane, int planeBytes, int point) {
+            planes[plane * planeBytes + point / 8] |= 1 << (point % 8);
+        }
+    }
+
+}